@@ -0,0 +1,74 @@
+package com.example.lra_bench;
+
+import com.example.lra_inventory.lra.CoordinatorCircuitBreaker;
+import com.example.lra_inventory.lra.LraCoordinatorClient;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.WebApplicationException;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// startLra against a coordinator that answers slower than the client read timeout.
+// Without the breaker every caller waits out the timeout; with it, callers get 503 at once apart from periodic probes.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(16)
+@Warmup(iterations = 1, time = 3)
+@Measurement(iterations = 3, time = 5)
+public class CoordinatorBreakerBenchmark {
+    @Param({"false", "true"})
+    public boolean breaker;
+
+    @Param({"1000"})
+    public int coordinatorLatencyMillis;
+
+    @Param({"200"})
+    public int readTimeoutMillis;
+
+    private StubCoordinator coordinator;
+    private CoordinatorCircuitBreaker circuitBreaker;
+    private LraCoordinatorClient client;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        coordinator = new StubCoordinator();
+        coordinator.latency(Duration.ofMillis(coordinatorLatencyMillis));
+        circuitBreaker = new CoordinatorCircuitBreaker(breaker, 5, Duration.ofSeconds(1), 1,
+                Duration.ofSeconds(2), 64, Duration.ofMillis(100));
+        client = Fixtures.coordinatorClient(coordinator.url(), Duration.ofMillis(readTimeoutMillis), circuitBreaker);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%nbreaker=%s state=%s coordinatorStarts=%d%n",
+                breaker, circuitBreaker.state(), coordinator.starts());
+        coordinator.close();
+    }
+
+    // 503 when the breaker rejects, 0 when the call timed out
+    @Benchmark
+    public int startLra() {
+        try {
+            client.startLra("bench", null);
+            return 201;
+        } catch (WebApplicationException ex) {
+            return ex.getResponse().getStatus();
+        } catch (ProcessingException ex) {
+            return 0;
+        }
+    }
+}
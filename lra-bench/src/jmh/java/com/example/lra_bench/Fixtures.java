@@ -0,0 +1,35 @@
+package com.example.lra_bench;
+
+import com.example.lra_inventory.lra.CoordinatorCircuitBreaker;
+import com.example.lra_inventory.lra.LraCoordinatorClient;
+import com.example.lra_inventory.lra.LraMetrics;
+import com.example.lra_inventory.lra.LraStartJournal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.util.unit.DataSize;
+
+final class Fixtures {
+    private Fixtures() {
+    }
+
+    static LraCoordinatorClient coordinatorClient(String coordinatorUrl) {
+        return coordinatorClient(coordinatorUrl, Duration.ofSeconds(10), breaker(true));
+    }
+
+    static LraCoordinatorClient coordinatorClient(String coordinatorUrl, Duration readTimeout, CoordinatorCircuitBreaker breaker) {
+        return new LraCoordinatorClient(coordinatorUrl, 50, 20,
+                Duration.ofSeconds(2), readTimeout, Duration.ofSeconds(60), breaker,
+                new LraMetrics(new SimpleMeterRegistry()));
+    }
+
+    // Same defaults as application.yaml
+    static CoordinatorCircuitBreaker breaker(boolean enabled) {
+        return new CoordinatorCircuitBreaker(enabled, 5, Duration.ofSeconds(5), 1, Duration.ofSeconds(2),
+                64, Duration.ofMillis(100));
+    }
+
+    static LraStartJournal startJournal(LraCoordinatorClient client, boolean enabled, Path path) {
+        return new LraStartJournal(client, enabled, String.valueOf(path), DataSize.ofMegabytes(8));
+    }
+}
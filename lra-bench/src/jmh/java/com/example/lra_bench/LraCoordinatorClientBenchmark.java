@@ -0,0 +1,68 @@
+package com.example.lra_bench;
+
+import com.example.lra_inventory.lra.LraCoordinatorClient;
+import com.example.lra_inventory.lra.ParticipantRegistration;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LraCoordinatorClientBenchmark {
+    private StubCoordinator coordinator;
+    private LraCoordinatorClient client;
+    private Map<String, URI> terminationUris;
+    private ParticipantRegistration participant;
+    private URI lraId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        coordinator = new StubCoordinator();
+        client = Fixtures.coordinatorClient(coordinator.url());
+        terminationUris = new HashMap<>();
+        for (String rel : new String[] {"compensate", "complete", "status", "forget", "leave", "after"}) {
+            String path = "status".equals(rel) ? "lra-status" : rel;
+            terminationUris.put(rel, URI.create("http://localhost:8081/inventory/" + path));
+        }
+        participant = new ParticipantRegistration(terminationUris);
+        lraId = URI.create(coordinator.url() + "/0_ffffac110003_ae72_67a8b3c1_2");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        coordinator.close();
+    }
+
+    // Cost of rendering the Link header, which the client used to pay on every join
+    @Benchmark
+    public String renderLinkHeader() {
+        return new ParticipantRegistration(terminationUris).linkHeader();
+    }
+
+    @Benchmark
+    public String cachedLinkHeader() {
+        return participant.linkHeader();
+    }
+
+    @Benchmark
+    public String lraUid() {
+        return LraCoordinatorClient.lraUid(lraId);
+    }
+
+    // Full enlistment round trip against the in-process stub coordinator
+    @Benchmark
+    public URI joinLra() {
+        return client.joinLra(lraId, participant, null);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.lra_bench;
+
+import com.example.lra_inventory.dto.InventoryRequest;
+import com.example.lra_inventory.lra.LraCoordinatorClient;
+import com.example.lra_inventory.lra.LraDeadlines;
+import com.example.lra_inventory.lra.LraEndDispatcher;
+import com.example.lra_inventory.lra.LraJoinCache;
+import com.example.lra_inventory.lra.LraParticipantEnlister;
+import com.example.lra_inventory.lra.LraRequestFilter;
+import com.example.lra_inventory.lra.LraStartJournal;
+import com.example.lra_inventory.resource.InventoryResource;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.HttpHeaders;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_CONTEXT_HEADER;
+
+// Request phase of the participant filter: a plain endpoint vs. a MANDATORY endpoint that enlists
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LraRequestFilterBenchmark {
+    private static final URI BASE_URI = URI.create("http://localhost:8081/");
+
+    @Param({"true", "false"})
+    public boolean joinCache;
+
+    private StubCoordinator coordinator;
+    private LraRequestFilter withoutLra;
+    private LraRequestFilter withLra;
+    private URI lraId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        coordinator = new StubCoordinator();
+        LraCoordinatorClient client = Fixtures.coordinatorClient(coordinator.url());
+        LraStartJournal startJournal = Fixtures.startJournal(client, false, null);
+        LraDeadlines deadlines = new LraDeadlines(Duration.ofMillis(10));
+        LraEndDispatcher ends = new LraEndDispatcher(client, startJournal, deadlines, false, 1, 16, 1, Duration.ZERO,
+                Files.createTempDirectory("lra-bench-ends").toString(), false);
+        LraJoinCache cache = new LraJoinCache(joinCache ? 10_000 : 0, Duration.ofMinutes(5));
+        LraParticipantEnlister enlister = new LraParticipantEnlister(client, cache, BASE_URI.toString());
+
+        withoutLra = new LraRequestFilter(client, ends, enlister, startJournal, deadlines);
+        inject(withoutLra, InventoryResource.class.getMethod("status", String.class));
+        withLra = new LraRequestFilter(client, ends, enlister, startJournal, deadlines);
+        inject(withLra, InventoryResource.class.getMethod("reserve", InventoryRequest.class, URI.class, HttpHeaders.class));
+        lraId = URI.create(coordinator.url() + "/0_bench_filter");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        coordinator.close();
+    }
+
+    @Benchmark
+    public ContainerRequestContext filterWithoutLra() {
+        ContainerRequestContext request = request("GET", "inventory/status/order-1");
+        withoutLra.filter(request);
+        return request;
+    }
+
+    @Benchmark
+    public ContainerRequestContext filterWithLra() {
+        ContainerRequestContext request = request("POST", "inventory/reserve");
+        request.getHeaders().putSingle(LRA_HTTP_CONTEXT_HEADER, lraId.toString());
+        withLra.filter(request);
+        return request;
+    }
+
+    private static ContainerRequestContext request(String method, String path) {
+        return new ContainerRequest(BASE_URI, BASE_URI.resolve(path), method, null, new MapPropertiesDelegate(), null);
+    }
+
+    private static void inject(LraRequestFilter filter, Method resourceMethod) throws ReflectiveOperationException {
+        ResourceInfo info = new ResourceInfo() {
+            @Override
+            public Method getResourceMethod() {
+                return resourceMethod;
+            }
+
+            @Override
+            public Class<?> getResourceClass() {
+                return resourceMethod.getDeclaringClass();
+            }
+        };
+        Field field = LraRequestFilter.class.getDeclaredField("resourceInfo");
+        field.setAccessible(true);
+        field.set(filter, info);
+    }
+}
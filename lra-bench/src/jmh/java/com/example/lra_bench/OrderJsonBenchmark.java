@@ -0,0 +1,86 @@
+package com.example.lra_bench;
+
+import com.example.lra_order.dto.InventoryResponse;
+import com.example.lra_order.dto.OrderItem;
+import com.example.lra_order.dto.OrderRequest;
+import com.example.lra_order.dto.PaymentResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Mirrors OrderResource.toJson and the participant response decoding in createOrder
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrderJsonBenchmark {
+    private ObjectMapper objectMapper;
+    private ObjectReader inventoryResponseReader;
+    private ObjectMapper cborMapper;
+    private ObjectReader inventoryResponseCborReader;
+    private OrderRequest orderRequest;
+    private String inventoryResponseJson;
+    private String paymentResponseJson;
+    private byte[] inventoryResponseBytes;
+    private byte[] inventoryResponseCbor;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = JsonMapper.builder().findAndAddModules().build();
+        orderRequest = new OrderRequest("order-001",
+                List.of(new OrderItem("ITEM-A", 2), new OrderItem("ITEM-B", 1)),
+                new BigDecimal("50000"), false, false);
+        String lraId = "http://localhost:8080/lra-coordinator/0_ffffac110003_ae72_67a8b3c1_2";
+        inventoryResponseJson = objectMapper.writeValueAsString(new InventoryResponse("order-001", "TRY", lraId));
+        inventoryResponseReader = objectMapper.readerFor(InventoryResponse.class);
+        inventoryResponseBytes = inventoryResponseJson.getBytes(StandardCharsets.UTF_8);
+        cborMapper = CBORMapper.builder().findAndAddModules().build();
+        inventoryResponseCborReader = cborMapper.readerFor(InventoryResponse.class);
+        inventoryResponseCbor = cborMapper.writeValueAsBytes(new InventoryResponse("order-001", "TRY", lraId));
+        paymentResponseJson = objectMapper.writeValueAsString(new PaymentResponse("order-001", "TRY", lraId));
+    }
+
+    @Benchmark
+    public String orderRequestToJson() throws Exception {
+        return objectMapper.writeValueAsString(orderRequest);
+    }
+
+    @Benchmark
+    public InventoryResponse parseInventoryResponse() throws Exception {
+        return objectMapper.readValue(inventoryResponseJson, InventoryResponse.class);
+    }
+
+    // Current OrderResource path: a cached ObjectReader decoding the entity stream
+    @Benchmark
+    public InventoryResponse streamInventoryResponse() throws Exception {
+        return inventoryResponseReader.readValue(new ByteArrayInputStream(inventoryResponseBytes));
+    }
+
+    @Benchmark
+    public PaymentResponse parsePaymentResponse() throws Exception {
+        return objectMapper.readValue(paymentResponseJson, PaymentResponse.class);
+    }
+
+    // lra.payload.format=cbor
+    @Benchmark
+    public byte[] orderRequestToCbor() throws Exception {
+        return cborMapper.writeValueAsBytes(orderRequest);
+    }
+
+    @Benchmark
+    public InventoryResponse streamInventoryResponseCbor() throws Exception {
+        return inventoryResponseCborReader.readValue(new ByteArrayInputStream(inventoryResponseCbor));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.lra_bench;
+
+import com.example.lra_inventory.LraInventoryApplication;
+import com.example.lra_inventory.entity.InventoryReservation;
+import com.example.lra_inventory.entity.ReservationStatus;
+import com.example.lra_inventory.repository.InventoryReservationRepository;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Bulk reservation load on H2 (PostgreSQL mode) over TCP: one saveAll transaction per chunk, as the bulk endpoint does
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(ParticipantInsertBenchmark.CHUNK)
+public class ParticipantInsertBenchmark {
+    static final int CHUNK = 500;
+    private static final String COORDINATOR = "http://localhost:8080/lra-coordinator/";
+    private static final byte[] AUDIT_PAYLOAD = "{\"orderId\":\"bench\",\"items\":[],\"fail\":false}".getBytes(StandardCharsets.UTF_8);
+
+    // 1 effectively disables JDBC batching
+    @Param({"1", "50"})
+    public int jdbcBatchSize;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private InventoryReservationRepository repository;
+    private JdbcTemplate jdbc;
+    private Server h2;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        // Go through H2's TCP server so every statement pays a real socket round trip, as against a networked database
+        h2 = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        context = new SpringApplicationBuilder(LraInventoryApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:tcp://localhost:" + h2.getPort() + "/mem:lra_insert_" + jdbcBatchSize
+                                + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize,
+                        "--lra.coordinator.url=" + COORDINATOR,
+                        "--app.base-url=http://localhost:8081",
+                        "--logging.level.root=WARN");
+        repository = context.getBean(InventoryReservationRepository.class);
+        jdbc = context.getBean(JdbcTemplate.class);
+    }
+
+    // Keep the in-memory tables small so each iteration measures inserts, not heap growth
+    @Setup(Level.Iteration)
+    public void clearTables() {
+        jdbc.update("delete from inventory_reservations");
+        jdbc.update("delete from inventory_request_audits");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        h2.stop();
+    }
+
+    @Benchmark
+    public List<InventoryReservation> saveChunk() {
+        List<InventoryReservation> chunk = new ArrayList<>(CHUNK);
+        for (int i = 0; i < CHUNK; i++) {
+            String uid = "0_bench_" + Long.toHexString(sequence.incrementAndGet());
+            chunk.add(new InventoryReservation("order-" + uid, COORDINATOR + uid, uid, ReservationStatus.TRY, "json", AUDIT_PAYLOAD));
+        }
+        return repository.saveAll(chunk);
+    }
+}
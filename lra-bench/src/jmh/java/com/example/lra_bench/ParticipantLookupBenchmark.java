@@ -0,0 +1,83 @@
+package com.example.lra_bench;
+
+import com.example.lra_inventory.LraInventoryApplication;
+import com.example.lra_inventory.entity.InventoryReservation;
+import com.example.lra_inventory.entity.ReservationStatus;
+import com.example.lra_inventory.repository.InventoryReservationRepository;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Callback lookup path of the inventory participant on H2 (PostgreSQL mode), as rows pile up
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParticipantLookupBenchmark {
+    private static final String COORDINATOR = "http://localhost:8080/lra-coordinator/";
+    private static final int INSERT_BATCH = 1_000;
+    private static final byte[] AUDIT_PAYLOAD = "{}".getBytes(StandardCharsets.UTF_8);
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private InventoryReservationRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(LraInventoryApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:lra_bench_" + rows + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.jpa.show-sql=false",
+                        "--lra.coordinator.url=" + COORDINATOR,
+                        "--app.base-url=http://localhost:8081",
+                        "--logging.level.root=WARN");
+        repository = context.getBean(InventoryReservationRepository.class);
+        List<InventoryReservation> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = 0; i < rows; i++) {
+            batch.add(new InventoryReservation("order-" + i, COORDINATOR + uid(i), uid(i), ReservationStatus.TRY, "json", AUDIT_PAYLOAD));
+            if (batch.size() == INSERT_BATCH) {
+                repository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        repository.saveAll(batch);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<InventoryReservation> findTopByLraUid() {
+        return repository.findTopByLraUid(uid(ThreadLocalRandom.current().nextInt(rows)));
+    }
+
+    // Previous lookup on the full, unindexed LRA URI string
+    @Benchmark
+    public Optional<InventoryReservation> findTopByLraId() {
+        return repository.findTopByLraId(COORDINATOR + uid(ThreadLocalRandom.current().nextInt(rows)));
+    }
+
+    private static String uid(int i) {
+        return "0_ffffac110003_ae72_" + Integer.toHexString(i) + "_2";
+    }
+}
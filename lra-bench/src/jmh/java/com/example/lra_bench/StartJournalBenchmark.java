@@ -0,0 +1,122 @@
+package com.example.lra_bench;
+
+import com.example.lra_inventory.LraInventoryApplication;
+import com.example.lra_order.LraOrderApplication;
+import com.example.lra_payment.LraPaymentApplication;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// POST /orders latency with and without the LRA start journal in the order service. The stub coordinator answers
+// immediately so the journal's fsync is not hidden behind coordinator latency.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(16)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+public class StartJournalBenchmark {
+    private static final String ORDER_BODY =
+            "{\"items\":[{\"sku\":\"SKU-1\",\"quantity\":1}],\"amount\":10,\"failInventory\":false,\"failPayment\":false}";
+
+    @Param({"false", "true"})
+    public boolean startJournal;
+
+    private StubCoordinator coordinator;
+    private ConfigurableApplicationContext inventory;
+    private ConfigurableApplicationContext payment;
+    private ConfigurableApplicationContext order;
+    private HttpClient http;
+    private HttpRequest createOrder;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        coordinator = new StubCoordinator();
+        Path journal = Files.createTempDirectory("lra-bench-start-journal").resolve("started-lras.journal");
+
+        int inventoryPort = freePort();
+        int paymentPort = freePort();
+        int orderPort = freePort();
+        inventory = start(LraInventoryApplication.class, "inventory", inventoryPort,
+                "--app.base-url=http://localhost:" + inventoryPort);
+        payment = start(LraPaymentApplication.class, "payment", paymentPort,
+                "--app.base-url=http://localhost:" + paymentPort);
+        order = start(LraOrderApplication.class, "order", orderPort,
+                "--inventory.base-url=http://localhost:" + inventoryPort,
+                "--payment.base-url=http://localhost:" + paymentPort,
+                "--lra.start-journal.enabled=" + startJournal,
+                "--lra.start-journal.path=" + journal);
+
+        http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        createOrder = HttpRequest.newBuilder(URI.create("http://localhost:" + orderPort + "/orders"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(ORDER_BODY))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        order.close();
+        payment.close();
+        inventory.close();
+        coordinator.close();
+    }
+
+    @Benchmark
+    public int createOrder() throws IOException, InterruptedException {
+        HttpResponse<Void> response = http.send(createOrder, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Order failed: status=" + response.statusCode());
+        }
+        return response.statusCode();
+    }
+
+    private ConfigurableApplicationContext start(Class<?> application, String name, int port, String... extraArgs) {
+        String[] common = {
+                "--server.port=" + port,
+                "--spring.threads.virtual.enabled=true",
+                "--spring.datasource.url=jdbc:h2:mem:lra_journal_" + name + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--spring.h2.console.enabled=false",
+                "--lra.coordinator.url=" + coordinator.url(),
+                "--lra.payload.format=json",
+                "--logging.level.root=WARN"
+        };
+        String[] args = new String[common.length + extraArgs.length];
+        System.arraycopy(common, 0, args, 0, common.length);
+        System.arraycopy(extraArgs, 0, args, common.length, extraArgs.length);
+        return new SpringApplicationBuilder(application).run(args);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
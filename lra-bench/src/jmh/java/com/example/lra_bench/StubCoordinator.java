@@ -0,0 +1,100 @@
+package com.example.lra_bench;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+// In-process stand-in for the Narayana REST contract used by LraCoordinatorClient
+public class StubCoordinator implements AutoCloseable {
+    private static final String CONTEXT = "/lra-coordinator";
+    // Deep accept queue so load tests see coordinator latency rather than refused connections
+    private static final int BACKLOG = 1024;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LongAdder starts = new LongAdder();
+    private final LongAdder joins = new LongAdder();
+    private final LongAdder ends = new LongAdder();
+    private volatile Duration latency = Duration.ZERO;
+
+    public StubCoordinator() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), BACKLOG);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server.setExecutor(executor);
+        this.server.createContext(CONTEXT, this::handle);
+        this.server.start();
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + CONTEXT;
+    }
+
+    public void latency(Duration latency) {
+        this.latency = latency;
+    }
+
+    public long starts() {
+        return starts.sum();
+    }
+
+    public long joins() {
+        return joins.sum();
+    }
+
+    public long ends() {
+        return ends.sum();
+    }
+
+    public long requests() {
+        return starts() + joins() + ends();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange; InputStream body = exchange.getRequestBody()) {
+            body.readAllBytes();
+            delay();
+            String path = exchange.getRequestURI().getPath().substring(CONTEXT.length());
+            String method = exchange.getRequestMethod();
+            if ("POST".equals(method) && "/start".equals(path)) {
+                starts.increment();
+                String lraId = url() + "/0_" + UUID.randomUUID().toString().replace('-', '_');
+                exchange.getResponseHeaders().add("Location", lraId);
+                exchange.sendResponseHeaders(201, -1);
+            } else if ("PUT".equals(method) && (path.endsWith("/close") || path.endsWith("/cancel"))) {
+                ends.increment();
+                exchange.sendResponseHeaders(200, -1);
+            } else if ("PUT".equals(method) && path.lastIndexOf('/') == 0) {
+                joins.increment();
+                exchange.getResponseHeaders().add("Long-Running-Action-Recovery", url() + "/recoveries" + path);
+                exchange.sendResponseHeaders(200, -1);
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+            }
+        }
+    }
+
+    private void delay() {
+        Duration current = latency;
+        if (current.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(current);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
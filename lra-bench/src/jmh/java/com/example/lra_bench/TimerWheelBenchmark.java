@@ -0,0 +1,49 @@
+package com.example.lra_bench;
+
+import com.example.lra_inventory.lra.LraTimerWheel;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+// Cost of registering and clearing an LRA deadline while the wheel already holds `pending` others spread over the
+// next hour; it should not grow with pending.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TimerWheelBenchmark {
+    @Param({"0", "100000", "500000"})
+    public int pending;
+
+    private LraTimerWheel wheel;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        wheel = new LraTimerWheel("bench-wheel", Duration.ofMillis(10), Runnable::run);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < pending; i++) {
+            wheel.schedule(Duration.ofMillis(60_000 + random.nextLong(3_540_000)), () -> { });
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        wheel.close();
+    }
+
+    @Benchmark
+    public boolean scheduleAndCancel() {
+        LraTimerWheel.Timeout timeout = wheel.schedule(
+                Duration.ofMillis(60_000 + ThreadLocalRandom.current().nextLong(3_540_000)), () -> { });
+        return timeout.cancel();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.lra_inventory.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PayloadCodec {
+    public static final String APPLICATION_CBOR = "application/cbor";
+    public static final MediaType APPLICATION_CBOR_TYPE = MediaType.valueOf(APPLICATION_CBOR);
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+    private final MediaType mediaType;
+
+    public PayloadCodec(ObjectMapper objectMapper,
+                        @Value("${lra.payload.format:json}") String format) {
+        this.jsonMapper = objectMapper;
+        this.cborMapper = CBORMapper.builder().findAndAddModules().build();
+        this.mediaType = switch (format.toLowerCase()) {
+            case "json" -> MediaType.APPLICATION_JSON_TYPE;
+            case "cbor" -> APPLICATION_CBOR_TYPE;
+            default -> throw new IllegalArgumentException("Unsupported lra.payload.format: " + format);
+        };
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public String format() {
+        return format(mediaType);
+    }
+
+    public String format(MediaType type) {
+        return isCbor(type) ? "cbor" : "json";
+    }
+
+    public byte[] encode(Object payload) {
+        return encode(payload, mediaType);
+    }
+
+    public byte[] encode(Object payload, MediaType type) {
+        try {
+            return mapper(type).writeValueAsBytes(payload);
+        } catch (JsonProcessingException ex) {
+            throw new WebApplicationException("Failed to serialize payload", Response.Status.BAD_REQUEST);
+        }
+    }
+
+    public ObjectReader readerFor(Class<?> type) {
+        return mapper(mediaType).readerFor(type);
+    }
+
+    private ObjectMapper mapper(MediaType type) {
+        return isCbor(type) ? cborMapper : jsonMapper;
+    }
+
+    private static boolean isCbor(MediaType type) {
+        return type != null && APPLICATION_CBOR_TYPE.isCompatible(type);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.lra_inventory.dto;
+
+import java.net.URI;
+
+public record InventoryBulkItem(
+        URI lraId,
+        InventoryRequest request
+) {
+}
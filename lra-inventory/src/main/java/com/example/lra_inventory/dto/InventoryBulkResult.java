@@ -0,0 +1,10 @@
+package com.example.lra_inventory.dto;
+
+public record InventoryBulkResult(
+        int index,
+        String orderId,
+        String status,
+        String lraId,
+        String error
+) {
+}
@@ -1,21 +1,31 @@
 package com.example.lra_inventory.entity;
 
+import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.Lob;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OneToOne;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import java.time.Instant;
 
 @Entity
-@Table(name = "inventory_reservations")
+@Table(name = "inventory_reservations", indexes = {
+        @Index(name = "idx_inventory_reservations_lra_uid_status", columnList = "lraUid, status"),
+        @Index(name = "idx_inventory_reservations_order_id", columnList = "orderId")
+})
 public class InventoryReservation {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence: ids are handed out 50 at a time, so inserts need no key round trip and can be JDBC-batched
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_reservations_id")
+    @SequenceGenerator(name = "inventory_reservations_id", sequenceName = "inventory_reservations_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -24,12 +34,17 @@ public class InventoryReservation {
     @Column(nullable = false)
     private String lraId;
 
-    @Column(nullable = false)
-    private String status;
+    // Coordinator-local LRA id (last path segment of lraId); compact, indexed lookup key for callbacks
+    @Column(nullable = false, length = 64)
+    private String lraUid;
 
-    @Lob
     @Column(nullable = false)
-    private String requestJson;
+    private ReservationStatus status;
+
+    // Audit copy of the request lives in its own table and is only loaded when asked for
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.PERSIST, optional = false)
+    @JoinColumn(name = "request_audit_id", nullable = false, updatable = false)
+    private RequestAudit requestAudit;
 
     @Column(nullable = false, updatable = false)
     private Instant createdAt;
@@ -40,11 +55,12 @@ public class InventoryReservation {
     protected InventoryReservation() {
     }
 
-    public InventoryReservation(String orderId, String lraId, String status, String requestJson) {
+    public InventoryReservation(String orderId, String lraId, String lraUid, ReservationStatus status, String payloadFormat, byte[] requestPayload) {
         this.orderId = orderId;
         this.lraId = lraId;
+        this.lraUid = lraUid;
         this.status = status;
-        this.requestJson = requestJson;
+        this.requestAudit = new RequestAudit(payloadFormat, requestPayload);
     }
 
     @PrePersist
@@ -71,11 +87,22 @@ public class InventoryReservation {
         return lraId;
     }
 
-    public String getStatus() {
+    public String getLraUid() {
+        return lraUid;
+    }
+
+    public RequestAudit getRequestAudit() {
+        return requestAudit;
+    }
+
+    public ReservationStatus getStatus() {
         return status;
     }
 
-    public void setStatus(String status) {
-        this.status = status;
+    public void transitionTo(ReservationStatus target) {
+        if (!status.canTransitionTo(target)) {
+            throw new IllegalStateException("Invalid reservation transition: " + status + " -> " + target);
+        }
+        this.status = target;
     }
 }
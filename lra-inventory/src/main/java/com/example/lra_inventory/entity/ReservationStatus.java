@@ -0,0 +1,55 @@
+package com.example.lra_inventory.entity;
+
+import java.util.Set;
+
+// Stored as a small-int code via ReservationStatusConverter; codes are part of the schema, never reuse one
+public enum ReservationStatus {
+    TRY(1),
+    FAILED(2),
+    COMPLETED(3),
+    COMPENSATED(4);
+
+    private static final ReservationStatus[] BY_CODE = new ReservationStatus[5];
+
+    static {
+        for (ReservationStatus status : values()) {
+            BY_CODE[status.code] = status;
+        }
+        TRY.sources = Set.of();
+        FAILED.sources = Set.of();
+        COMPLETED.sources = Set.of(TRY);
+        COMPENSATED.sources = Set.of(TRY, FAILED);
+    }
+
+    private final byte code;
+    private Set<ReservationStatus> sources;
+
+    ReservationStatus(int code) {
+        this.code = (byte) code;
+    }
+
+    public static ReservationStatus fromCode(int code) {
+        ReservationStatus status = code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (status == null) {
+            throw new IllegalArgumentException("Unknown reservation status code: " + code);
+        }
+        return status;
+    }
+
+    public byte code() {
+        return code;
+    }
+
+    // States a reservation may move into this one from; also the filter of the conditional UPDATE
+    public Set<ReservationStatus> sources() {
+        return sources;
+    }
+
+    public boolean canTransitionTo(ReservationStatus target) {
+        return target.sources.contains(this);
+    }
+
+    public boolean isTerminal() {
+        return this == COMPLETED || this == COMPENSATED;
+    }
+}
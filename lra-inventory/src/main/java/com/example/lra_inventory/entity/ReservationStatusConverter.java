@@ -0,0 +1,17 @@
+package com.example.lra_inventory.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class ReservationStatusConverter implements AttributeConverter<ReservationStatus, Short> {
+    @Override
+    public Short convertToDatabaseColumn(ReservationStatus status) {
+        return status == null ? null : (short) status.code();
+    }
+
+    @Override
+    public ReservationStatus convertToEntityAttribute(Short code) {
+        return code == null ? null : ReservationStatus.fromCode(code);
+    }
+}
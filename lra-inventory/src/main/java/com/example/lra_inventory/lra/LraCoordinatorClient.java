@@ -1,43 +1,132 @@
 package com.example.lra_inventory.lra;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.client.Client;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.glassfish.jersey.apache5.connector.Apache5ClientProperties;
+import org.glassfish.jersey.apache5.connector.Apache5ConnectorProvider;
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
 import org.glassfish.jersey.client.JerseyClientBuilder;
 import jakarta.ws.rs.client.Entity;
-import jakarta.ws.rs.core.Link;
 import jakarta.ws.rs.core.Response;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Map;
-import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @Component
-public class LraCoordinatorClient {
+public class LraCoordinatorClient implements MeterBinder {
     private static final Logger log = LoggerFactory.getLogger(LraCoordinatorClient.class);
     private static final String API_VERSION_HEADER = "Narayana-LRA-API-version";
     private static final String API_VERSION = "1.0";
 
     private final URI coordinatorUrl;
+    private final PoolingHttpClientConnectionManager connectionManager;
     private final Client client;
+    private final CoordinatorCircuitBreaker breaker;
+    private final LraMetrics metrics;
+    private final ConcurrentMap<JoinKey, CompletableFuture<URI>> inFlightJoins = new ConcurrentHashMap<>();
 
-    public LraCoordinatorClient(@Value("${lra.coordinator.url}") String coordinatorUrl) {
+    public LraCoordinatorClient(@Value("${lra.coordinator.url}") String coordinatorUrl,
+                                @Value("${lra.coordinator.http.max-connections:50}") int maxConnections,
+                                @Value("${lra.coordinator.http.max-connections-per-route:20}") int maxConnectionsPerRoute,
+                                @Value("${lra.coordinator.http.connect-timeout:2s}") Duration connectTimeout,
+                                @Value("${lra.coordinator.http.read-timeout:10s}") Duration readTimeout,
+                                @Value("${lra.coordinator.http.time-to-live:60s}") Duration timeToLive,
+                                CoordinatorCircuitBreaker breaker,
+                                LraMetrics metrics) {
         this.coordinatorUrl = URI.create(coordinatorUrl);
-        this.client = new JerseyClientBuilder().build();
+        this.breaker = breaker;
+        this.metrics = metrics;
+        // Keep connections to the coordinator alive across start/join/end hops instead of
+        // paying TCP setup per call with the default HttpURLConnection connector
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setTimeToLive(TimeValue.of(timeToLive))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        ClientConfig config = new ClientConfig()
+                .connectorProvider(new Apache5ConnectorProvider())
+                .property(Apache5ClientProperties.CONNECTION_MANAGER, connectionManager)
+                .property(ClientProperties.CONNECT_TIMEOUT, (int) connectTimeout.toMillis())
+                .property(ClientProperties.READ_TIMEOUT, (int) readTimeout.toMillis());
+        this.client = JerseyClientBuilder.createClient(config);
+        log.info("LRA coordinator client: coordinator={} maxConnections={} maxConnectionsPerRoute={} connectTimeout={} readTimeout={}",
+                coordinatorUrl, maxConnections, maxConnectionsPerRoute, connectTimeout, readTimeout);
+    }
+
+    public PoolStats poolStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        connections(registry, "leased", PoolStats::getLeased);
+        connections(registry, "available", PoolStats::getAvailable);
+        connections(registry, "pending", PoolStats::getPending);
+        Gauge.builder("lra.coordinator.http.connections.max", this, client -> client.poolStats().getMax())
+                .register(registry);
+    }
+
+    private void connections(MeterRegistry registry, String state, ToIntFunction<PoolStats> stat) {
+        Gauge.builder("lra.coordinator.http.connections", this, client -> stat.applyAsInt(client.poolStats()))
+                .tag("state", state)
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        client.close();
     }
 
     public URI startLra(String clientId, URI parentLra) {
+        return startLra(clientId, parentLra, 0);
+    }
+
+    // timeLimitMillis <= 0 means no limit
+    public URI startLra(String clientId, URI parentLra, long timeLimitMillis) {
+        LraEvents.Start event = new LraEvents.Start(clientId);
+        return coordinatorCall("start", event, () -> {
+            URI lraId = start(clientId, parentLra, Math.max(0, timeLimitMillis));
+            event.lra(lraId);
+            return lraId;
+        });
+    }
+
+    private URI start(String clientId, URI parentLra, long timeLimitMillis) {
         String parent = parentLra == null ? "" : URLEncoder.encode(parentLra.toString(), StandardCharsets.UTF_8);
         String resolvedClientId = clientId == null ? "" : clientId;
 
         try (Response response = client.target(coordinatorUrl)
                 .path("/start")
                 .queryParam("ClientID", resolvedClientId)
-                .queryParam("TimeLimit", 0)
+                .queryParam("TimeLimit", timeLimitMillis)
                 .queryParam("ParentLRA", parent)
                 .request()
                 .header(API_VERSION_HEADER, API_VERSION)
@@ -61,14 +150,53 @@ public class LraCoordinatorClient {
     }
 
     public URI joinLra(URI lraId, Map<String, URI> terminationUris, String participantData) {
+        return joinLra(lraId, new ParticipantRegistration(terminationUris), participantData);
+    }
+
+    public URI joinLra(URI lraId, ParticipantRegistration participant, String participantData) {
+        return joinLra(lraId, participant, participantData, 0);
+    }
+
+    // timeLimitMillis bounds this participant's part of the LRA, <= 0 means no limit
+    public URI joinLra(URI lraId, ParticipantRegistration participant, String participantData, long timeLimitMillis) {
+        long timeLimit = Math.max(0, timeLimitMillis);
+        if (participantData != null) {
+            return enlist(lraId, participant, participantData, timeLimit);
+        }
+        // Identical concurrent joins (e.g. client retries) share a single PUT to the coordinator
+        JoinKey key = new JoinKey(lraUid(lraId), participant.linkHeader());
+        CompletableFuture<URI> join = new CompletableFuture<>();
+        CompletableFuture<URI> inFlight = inFlightJoins.putIfAbsent(key, join);
+        if (inFlight != null) {
+            log.info("LRA join coalesced with in-flight enlistment: lraId={}", lraId);
+            return awaitJoin(inFlight);
+        }
+        try {
+            URI recovery = enlist(lraId, participant, null, timeLimit);
+            join.complete(recovery);
+            return recovery;
+        } catch (RuntimeException ex) {
+            join.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlightJoins.remove(key, join);
+        }
+    }
+
+    private URI enlist(URI lraId, ParticipantRegistration participant, String participantData, long timeLimitMillis) {
+        return coordinatorCall("join", new LraEvents.Join(lraId),
+                () -> put(lraId, participant, participantData, timeLimitMillis));
+    }
+
+    private URI put(URI lraId, ParticipantRegistration participant, String participantData, long timeLimitMillis) {
         String lraUid = lraUid(lraId);
-        String linkHeader = buildLinkHeader(terminationUris);
+        String linkHeader = participant.linkHeader();
         log.info("LRA join attempt: lraId={} linkHeader={}", lraId, linkHeader);
         Object payload = participantData == null ? linkHeader : participantData;
 
         try (Response response = client.target(coordinatorUrl)
                 .path("/" + lraUid)
-                .queryParam("TimeLimit", 0)
+                .queryParam("TimeLimit", timeLimitMillis)
                 .request()
                 .header(API_VERSION_HEADER, API_VERSION)
                 .header("Link", linkHeader)
@@ -85,6 +213,18 @@ public class LraCoordinatorClient {
     }
 
     private void endLra(URI lraId, String action) {
+        coordinatorCall(action, new LraEvents.End(lraId, action), () -> {
+            end(lraId, action);
+            return null;
+        });
+    }
+
+    private <T> T coordinatorCall(String operation, LraEvents.LraEvent event, Supplier<T> call) {
+        return metrics.time(LraMetrics.COORDINATOR_REQUESTS, "operation", operation, event,
+                () -> breaker.call(operation, call));
+    }
+
+    private void end(URI lraId, String action) {
         String lraUid = lraUid(lraId);
         try (Response response = client.target(coordinatorUrl)
                 .path("/" + lraUid + "/" + action)
@@ -102,26 +242,23 @@ public class LraCoordinatorClient {
         }
     }
 
-    private String buildLinkHeader(Map<String, URI> terminationUris) {
-        StringJoiner joiner = new StringJoiner(",");
-        for (Map.Entry<String, URI> entry : terminationUris.entrySet()) {
-            URI uri = entry.getValue();
-            if (uri == null) {
-                continue;
+    private URI awaitJoin(CompletableFuture<URI> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
             }
-            Link link = Link.fromUri(uri)
-                    .rel(entry.getKey())
-                    .title(entry.getKey())
-                    .type("text/plain")
-                    .build();
-            joiner.add(link.toString());
+            throw ex;
         }
-        return joiner.toString();
     }
 
-    private String lraUid(URI lraId) {
+    public static String lraUid(URI lraId) {
         String path = lraId.getPath();
         int lastSlash = path.lastIndexOf('/');
         return lastSlash >= 0 ? path.substring(lastSlash + 1) : path;
     }
+
+    private record JoinKey(String lraUid, String linkHeader) {
+    }
 }
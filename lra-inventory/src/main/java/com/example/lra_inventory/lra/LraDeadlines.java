@@ -0,0 +1,91 @@
+package com.example.lra_inventory.lra;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Local enforcement of @LRA time limits. The coordinator is told the limit too, but an abandoned LRA is cancelled
+// here as soon as it expires instead of whenever the coordinator gets round to it. One deadline per LRA;
+// the expiry action runs on a virtual thread.
+@Component
+public class LraDeadlines implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(LraDeadlines.class);
+
+    private final ExecutorService expiries = Executors.newVirtualThreadPerTaskExecutor();
+    private final LraTimerWheel wheel;
+    private final Map<URI, Expiry> deadlines = new ConcurrentHashMap<>();
+
+    public LraDeadlines(@Value("${lra.deadlines.tick:10ms}") Duration tick) {
+        this.wheel = new LraTimerWheel("lra-deadlines", tick, expiries);
+    }
+
+    // The first limit registered for an LRA wins; later ones (e.g. retried requests) are ignored
+    public void track(URI lraId, long timeLimitMillis, Runnable onExpiry) {
+        if (timeLimitMillis <= 0 || deadlines.containsKey(lraId)) {
+            return;
+        }
+        Expiry expiry = new Expiry(lraId, timeLimitMillis, onExpiry);
+        if (deadlines.putIfAbsent(lraId, expiry) != null) {
+            return;
+        }
+        expiry.timeout = wheel.schedule(Duration.ofMillis(timeLimitMillis), expiry);
+    }
+
+    public void clear(URI lraId) {
+        Expiry expiry = deadlines.remove(lraId);
+        if (expiry != null && expiry.timeout != null) {
+            expiry.timeout.cancel();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("lra.deadlines.pending", deadlines, Map::size)
+                .description("LRAs with a time limit being enforced locally")
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        wheel.close();
+        expiries.shutdownNow();
+    }
+
+    private final class Expiry implements Runnable {
+        private final URI lraId;
+        private final long timeLimitMillis;
+        private final Runnable onExpiry;
+        private volatile LraTimerWheel.Timeout timeout;
+
+        private Expiry(URI lraId, long timeLimitMillis, Runnable onExpiry) {
+            this.lraId = lraId;
+            this.timeLimitMillis = timeLimitMillis;
+            this.onExpiry = onExpiry;
+        }
+
+        @Override
+        public void run() {
+            // Lost the race with clear(): the LRA ended just as the timer fired
+            if (!deadlines.remove(lraId, this)) {
+                return;
+            }
+            log.warn("LRA time limit expired: lraId={} timeLimit={}ms", lraId, timeLimitMillis);
+            try {
+                onExpiry.run();
+            } catch (RuntimeException ex) {
+                log.error("LRA expiry action failed: lraId={}", lraId, ex);
+            }
+        }
+    }
+}
@@ -10,17 +10,18 @@ import jakarta.ws.rs.container.ContainerResponseContext;
 import jakarta.ws.rs.container.ContainerResponseFilter;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.Response;
-import jakarta.ws.rs.core.UriBuilder;
 import jakarta.ws.rs.ext.Provider;
 import java.lang.reflect.Method;
 import java.net.URI;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.microprofile.lra.annotation.Compensate;
+import org.eclipse.microprofile.lra.annotation.Complete;
+import org.eclipse.microprofile.lra.annotation.Forget;
 import org.eclipse.microprofile.lra.annotation.ws.rs.LRA;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
-import org.springframework.beans.factory.annotation.Value;
 import jakarta.ws.rs.container.ResourceInfo;
 
 import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_CONTEXT_HEADER;
@@ -33,31 +34,56 @@ public class LraRequestFilter implements ContainerRequestFilter, ContainerRespon
     private static final String LRA_ID_PROPERTY = "lra.id";
     private static final String LRA_STARTED_PROPERTY = "lra.started";
     private static final String LRA_END_PROPERTY = "lra.end";
+    private static final String LRA_EVENT_PROPERTY = "lra.event";
+    private static final LraMethod NOT_LRA = new LraMethod(null, false, null, null, 0);
+    // @Complete/@Compensate/@Forget: the coordinator is ending this participant, so its local deadline is moot
+    private static final LraMethod TERMINATION = new LraMethod(null, false, null, null, 0);
 
     private final LraCoordinatorClient lraClient;
-    private final URI externalBaseUri;
+    private final LraEndDispatcher lraEnds;
+    private final LraParticipantEnlister enlister;
+    private final LraStartJournal startJournal;
+    private final LraDeadlines deadlines;
+    // Resolved once per resource method so the hot path skips reflection and URI building
+    private final Map<Method, LraMethod> lraMethods = new ConcurrentHashMap<>();
 
     @Context
     private ResourceInfo resourceInfo;
 
     public LraRequestFilter(LraCoordinatorClient lraClient,
-                            @Value("${app.base-url}") String appBaseUrl) {
+                            LraEndDispatcher lraEnds,
+                            LraParticipantEnlister enlister,
+                            LraStartJournal startJournal,
+                            LraDeadlines deadlines) {
         this.lraClient = lraClient;
-        this.externalBaseUri = URI.create(appBaseUrl);
+        this.lraEnds = lraEnds;
+        this.enlister = enlister;
+        this.startJournal = startJournal;
+        this.deadlines = deadlines;
     }
 
     @Override
     public void filter(ContainerRequestContext requestContext) {
-        LRA lra = resolveLraAnnotation(resourceInfo);
+        LraMethod lra = resolveLraMethod(resourceInfo);
         if (lra == null) {
             return;
         }
 
         URI lraId = readLraId(requestContext);
-        switch (lra.value()) {
+        if (lra == TERMINATION) {
+            if (lraId != null) {
+                deadlines.clear(lraId);
+            }
+            return;
+        }
+        LraEvents.Request event = new LraEvents.Request(lraId, lra.type().name(), lra.clientId());
+        event.begin();
+        requestContext.setProperty(LRA_EVENT_PROPERTY, event);
+        switch (lra.type()) {
             case REQUIRES_NEW -> {
                 URI parent = lraId;
-                URI started = lraClient.startLra(resourceInfo.getResourceClass().getSimpleName(), parent);
+                URI started = start(lra, parent);
+                event.started(started);
                 requestContext.getHeaders().putSingle(LRA_HTTP_CONTEXT_HEADER, started.toString());
                 requestContext.setProperty(LRA_ID_PROPERTY, started);
                 requestContext.setProperty(LRA_STARTED_PROPERTY, true);
@@ -70,11 +96,12 @@ public class LraRequestFilter implements ContainerRequestFilter, ContainerRespon
                 }
                 requestContext.setProperty(LRA_ID_PROPERTY, lraId);
                 requestContext.setProperty(LRA_END_PROPERTY, false);
-                joinIfParticipant(lraId);
+                joinIfParticipant(lra, lraId);
             }
             case REQUIRED -> {
                 if (lraId == null) {
-                    URI started = lraClient.startLra(resourceInfo.getResourceClass().getSimpleName(), null);
+                    URI started = start(lra, null);
+                    event.started(started);
                     requestContext.getHeaders().putSingle(LRA_HTTP_CONTEXT_HEADER, started.toString());
                     requestContext.setProperty(LRA_ID_PROPERTY, started);
                     requestContext.setProperty(LRA_STARTED_PROPERTY, true);
@@ -82,7 +109,7 @@ public class LraRequestFilter implements ContainerRequestFilter, ContainerRespon
                 } else {
                     requestContext.setProperty(LRA_ID_PROPERTY, lraId);
                     requestContext.setProperty(LRA_END_PROPERTY, false);
-                    joinIfParticipant(lraId);
+                    joinIfParticipant(lra, lraId);
                 }
             }
             default -> {
@@ -95,6 +122,16 @@ public class LraRequestFilter implements ContainerRequestFilter, ContainerRespon
 
     @Override
     public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        try {
+            endStartedLra(requestContext, responseContext);
+        } finally {
+            if (requestContext.getProperty(LRA_EVENT_PROPERTY) instanceof LraEvents.Request event) {
+                event.finish(LraMetrics.outcome(responseContext.getStatus()));
+            }
+        }
+    }
+
+    private void endStartedLra(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
         boolean started = Boolean.TRUE.equals(requestContext.getProperty(LRA_STARTED_PROPERTY));
         boolean shouldEnd = Boolean.TRUE.equals(requestContext.getProperty(LRA_END_PROPERTY));
         if (!started || !shouldEnd) {
@@ -107,50 +144,75 @@ public class LraRequestFilter implements ContainerRequestFilter, ContainerRespon
         }
 
         if (responseContext.getStatus() >= 400) {
-            lraClient.cancelLra(lraId);
-            log.warn("LRA cancelled by filter: {} status={}", lraId, responseContext.getStatus());
+            lraEnds.cancel(lraId);
+            log.warn("LRA cancelled by filter: {} status={} async={}", lraId, responseContext.getStatus(), lraEnds.isAsync());
         } else {
-            lraClient.closeLra(lraId);
-            log.info("LRA closed by filter: {}", lraId);
+            lraEnds.close(lraId);
+            log.info("LRA closed by filter: {} async={}", lraId, lraEnds.isAsync());
         }
     }
 
-    private void joinIfParticipant(URI lraId) {
-        Path classPath = resourceInfo.getResourceClass().getAnnotation(Path.class);
-        if (classPath == null) {
-            return;
-        }
-        Map<String, URI> uris = buildTerminationUris(classPath.value());
-        lraClient.joinLra(lraId, uris, null);
+    private URI start(LraMethod lra, URI parent) {
+        URI started = lraClient.startLra(lra.clientId(), parent, lra.timeLimitMillis());
+        startJournal.started(started);
+        deadlines.track(started, lra.timeLimitMillis(), () -> lraEnds.cancel(started));
+        return started;
     }
 
-    private Map<String, URI> buildTerminationUris(String classPath) {
-        UriBuilder base = UriBuilder.fromUri(externalBaseUri).path(classPath);
-        Map<String, URI> uris = new HashMap<>();
-        uris.put("compensate", base.clone().path("compensate").build());
-        uris.put("complete", base.clone().path("complete").build());
-        uris.put("status", base.clone().path("lra-status").build());
-        uris.put("forget", base.clone().path("forget").build());
-        uris.put("leave", base.clone().path("leave").build());
-        uris.put("after", base.clone().path("after").build());
-        return uris;
+    private void joinIfParticipant(LraMethod lra, URI lraId) {
+        if (lra.participant() == null) {
+            return;
+        }
+        enlister.enlist(lraId, lra.participant(), lra.timeLimitMillis());
+        // Past the limit the local work is abandoned; cancelling has the coordinator compensate it
+        deadlines.track(lraId, lra.timeLimitMillis(), () -> lraEnds.cancel(lraId));
     }
 
-    private LRA resolveLraAnnotation(ResourceInfo info) {
+    private LraMethod resolveLraMethod(ResourceInfo info) {
         if (info == null) {
             return null;
         }
         Method method = info.getResourceMethod();
+        Class<?> resourceClass = info.getResourceClass();
+        LraMethod resolved = method == null
+                ? describe(null, resourceClass)
+                : lraMethods.computeIfAbsent(method, m -> describe(m, resourceClass));
+        return resolved == NOT_LRA ? null : resolved;
+    }
+
+    private LraMethod describe(Method method, Class<?> resourceClass) {
+        LRA lra = resolveLraAnnotation(method, resourceClass);
+        if (lra == null) {
+            return isTermination(method) ? TERMINATION : NOT_LRA;
+        }
+        Path classPath = resourceClass.getAnnotation(Path.class);
+        ParticipantRegistration participant = classPath == null
+                ? null
+                : enlister.registration(classPath.value());
+        return new LraMethod(lra.value(), lra.end(), resourceClass.getSimpleName(), participant, timeLimitMillis(lra));
+    }
+
+    private LRA resolveLraAnnotation(Method method, Class<?> resourceClass) {
         if (method != null && method.isAnnotationPresent(LRA.class)) {
             return method.getAnnotation(LRA.class);
         }
-        Class<?> resourceClass = info.getResourceClass();
         if (resourceClass != null && resourceClass.isAnnotationPresent(LRA.class)) {
             return resourceClass.getAnnotation(LRA.class);
         }
         return null;
     }
 
+    private static boolean isTermination(Method method) {
+        return method != null && (method.isAnnotationPresent(Complete.class)
+                || method.isAnnotationPresent(Compensate.class)
+                || method.isAnnotationPresent(Forget.class));
+    }
+
+    private static long timeLimitMillis(LRA lra) {
+        // getDuration() also covers the estimated units (DAYS, MONTHS, ...) that Duration.of rejects
+        return lra.timeLimit() <= 0 ? 0 : lra.timeUnit().getDuration().multipliedBy(lra.timeLimit()).toMillis();
+    }
+
     private URI readLraId(ContainerRequestContext requestContext) {
         String header = requestContext.getHeaderString(LRA_HTTP_CONTEXT_HEADER);
         if (header == null || header.isBlank()) {
@@ -158,4 +220,8 @@ public class LraRequestFilter implements ContainerRequestFilter, ContainerRespon
         }
         return URI.create(header);
     }
+
+    private record LraMethod(LRA.Type type, boolean end, String clientId, ParticipantRegistration participant,
+                             long timeLimitMillis) {
+    }
 }
@@ -0,0 +1,45 @@
+package com.example.lra_inventory.lra;
+
+import jakarta.ws.rs.core.Link;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+public final class ParticipantRegistration {
+    private final Map<String, URI> terminationUris;
+    // The Link header never changes for a participant, so it is rendered once and reused for every join
+    private final String linkHeader;
+
+    public ParticipantRegistration(Map<String, URI> terminationUris) {
+        Map<String, URI> uris = new LinkedHashMap<>();
+        terminationUris.forEach((rel, uri) -> {
+            if (uri != null) {
+                uris.put(rel, uri);
+            }
+        });
+        this.terminationUris = Map.copyOf(uris);
+        this.linkHeader = buildLinkHeader(uris);
+    }
+
+    public Map<String, URI> terminationUris() {
+        return terminationUris;
+    }
+
+    public String linkHeader() {
+        return linkHeader;
+    }
+
+    private static String buildLinkHeader(Map<String, URI> terminationUris) {
+        StringJoiner joiner = new StringJoiner(",");
+        for (Map.Entry<String, URI> entry : terminationUris.entrySet()) {
+            Link link = Link.fromUri(entry.getValue())
+                    .rel(entry.getKey())
+                    .title(entry.getKey())
+                    .type("text/plain")
+                    .build();
+            joiner.add(link.toString());
+        }
+        return joiner.toString();
+    }
+}
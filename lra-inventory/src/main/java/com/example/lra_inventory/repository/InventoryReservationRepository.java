@@ -1,10 +1,25 @@
 package com.example.lra_inventory.repository;
 
 import com.example.lra_inventory.entity.InventoryReservation;
+import com.example.lra_inventory.entity.ReservationStatus;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface InventoryReservationRepository extends JpaRepository<InventoryReservation, Long> {
     Optional<InventoryReservation> findTopByLraId(String lraId);
+    Optional<InventoryReservation> findTopByLraUid(String lraUid);
     Optional<InventoryReservation> findTopByOrderId(String orderId);
+
+    @Modifying
+    @Query("update InventoryReservation r set r.status = :status, r.updatedAt = :updatedAt "
+            + "where r.lraUid = :lraUid and r.status in :fromStatuses")
+    int updateStatus(@Param("lraUid") String lraUid,
+                     @Param("status") ReservationStatus status,
+                     @Param("fromStatuses") Collection<ReservationStatus> fromStatuses,
+                     @Param("updatedAt") Instant updatedAt);
 }
@@ -0,0 +1,199 @@
+package com.example.lra_inventory.repository;
+
+import com.example.lra_inventory.entity.InventoryReservation;
+import com.example.lra_inventory.entity.ReservationStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Optional in-memory view of reservation status keyed by LRA uid, so lra-status polls skip the database.
+// Transitions are fsynced to a write-ahead log before they are acknowledged, then flushed to JPA in the background.
+@Component
+public class InventoryStateStore {
+    private static final Logger log = LoggerFactory.getLogger(InventoryStateStore.class);
+
+    private final InventoryReservationRepository repository;
+    private final InventoryStatusWriter statusWriter;
+    private final boolean enabled;
+    private final Path walPath;
+    private final ConcurrentHashMap<String, Byte> states = new ConcurrentHashMap<>();
+    private final AtomicInteger unflushed = new AtomicInteger();
+    // Logged transitions whose database flush failed, latest per uid; the log is kept until they are flushed
+    private final ConcurrentHashMap<String, ReservationStatus> failedFlushes = new ConcurrentHashMap<>();
+    private final ReentrantLock walLock = new ReentrantLock();
+    private FileChannel wal;
+
+    public InventoryStateStore(InventoryReservationRepository repository,
+                               InventoryStatusWriter statusWriter,
+                               @Value("${lra.state-store.enabled:false}") boolean enabled,
+                               @Value("${lra.state-store.wal-path:${java.io.tmpdir}/lra-inventory/state.wal}") String walPath) {
+        this.repository = repository;
+        this.statusWriter = statusWriter;
+        this.enabled = enabled;
+        this.walPath = Path.of(walPath);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Apply transitions that were logged but may not have reached the database before the last shutdown
+    @PostConstruct
+    void recover() throws IOException {
+        if (Files.exists(walPath)) {
+            List<String> entries = Files.readAllLines(walPath, StandardCharsets.UTF_8);
+            int applied = 0;
+            for (String entry : entries) {
+                String[] fields = entry.split(" ");
+                if (fields.length != 2) {
+                    continue;
+                }
+                applied += statusWriter.transition(fields[0], ReservationStatus.valueOf(fields[1]));
+            }
+            log.info("Inventory state log replayed: entries={} applied={} path={}", entries.size(), applied, walPath);
+        }
+        if (enabled) {
+            Files.createDirectories(walPath.toAbsolutePath().getParent());
+            wal = FileChannel.open(walPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        } else {
+            Files.deleteIfExists(walPath);
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (wal != null) {
+            wal.close();
+        }
+    }
+
+    // Called once the reservation row is committed
+    public void created(String lraUid, ReservationStatus status) {
+        if (enabled) {
+            states.put(lraUid, status.code());
+        }
+    }
+
+    // null when there is no reservation for the uid
+    public ReservationStatus status(String lraUid) {
+        Byte cached = states.get(lraUid);
+        if (cached != null) {
+            return ReservationStatus.fromCode(cached);
+        }
+        ReservationStatus loaded = repository.findTopByLraUid(lraUid).map(InventoryReservation::getStatus).orElse(null);
+        // Only active reservations are worth keeping; finished ones are rarely polled again
+        if (loaded != null && !loaded.isTerminal()) {
+            Byte raced = states.putIfAbsent(lraUid, loaded.code());
+            return raced == null ? loaded : ReservationStatus.fromCode(raced);
+        }
+        return loaded;
+    }
+
+    // Same contract as InventoryStatusWriter.transition: rows moved to the new status (0 or 1 here)
+    public int transition(String lraUid, ReservationStatus target) {
+        if (!enabled) {
+            return statusWriter.transition(lraUid, target);
+        }
+        if (!states.containsKey(lraUid)) {
+            status(lraUid);
+        }
+        // Checked, logged and published under the log lock: readers never see a status that is not yet durable,
+        // and flushes for one uid are queued in the order they were logged
+        walLock.lock();
+        try {
+            Byte current = states.get(lraUid);
+            if (current == null || !ReservationStatus.fromCode(current).canTransitionTo(target)) {
+                return 0;
+            }
+            // Throws before anything is published; the coordinator retries the callback
+            logAhead(lraUid, target);
+            states.replace(lraUid, target.code());
+            flush(lraUid, target);
+            return 1;
+        } finally {
+            walLock.unlock();
+        }
+    }
+
+    public void forget(String lraUid) {
+        states.remove(lraUid);
+    }
+
+    public int size() {
+        return states.size();
+    }
+
+    // Caller holds walLock
+    private void logAhead(String lraUid, ReservationStatus target) {
+        byte[] entry = (lraUid + " " + target.name() + "\n").getBytes(StandardCharsets.UTF_8);
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(entry);
+            while (buffer.hasRemaining()) {
+                wal.write(buffer);
+            }
+            wal.force(false);
+            unflushed.incrementAndGet();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to write inventory state log: " + walPath, ex);
+        }
+    }
+
+    private void flush(String lraUid, ReservationStatus target) {
+        statusWriter.submit(lraUid, target).whenComplete((updated, ex) -> {
+            if (ex != null) {
+                // Keep the log until a retry succeeds; a restart before then replays it
+                failedFlushes.put(lraUid, target);
+                log.error("Inventory state flush failed: lraUid={} status={}", lraUid, target, ex);
+            } else {
+                if (target.isTerminal()) {
+                    states.remove(lraUid, target.code());
+                }
+                retryFailedFlushes();
+            }
+            checkpoint();
+        });
+    }
+
+    // The database took a write again, so resubmit what failed earlier; the log is truncated once they land
+    private void retryFailedFlushes() {
+        for (String lraUid : failedFlushes.keySet()) {
+            ReservationStatus target = failedFlushes.get(lraUid);
+            if (target != null && failedFlushes.remove(lraUid, target)) {
+                unflushed.incrementAndGet();
+                log.info("Retrying inventory state flush: lraUid={} status={}", lraUid, target);
+                flush(lraUid, target);
+            }
+        }
+    }
+
+    private void checkpoint() {
+        walLock.lock();
+        try {
+            if (unflushed.decrementAndGet() > 0 || !failedFlushes.isEmpty()) {
+                return;
+            }
+            wal.truncate(0);
+            wal.position(0);
+        } catch (IOException ex) {
+            log.warn("Failed to truncate inventory state log: {}", walPath, ex);
+        } finally {
+            walLock.unlock();
+        }
+    }
+}
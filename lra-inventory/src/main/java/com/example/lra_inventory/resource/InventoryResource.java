@@ -1,11 +1,25 @@
 package com.example.lra_inventory.resource;
 
+import com.example.lra_inventory.codec.PayloadCodec;
+import com.example.lra_inventory.dto.InventoryBulkItem;
+import com.example.lra_inventory.dto.InventoryBulkResult;
 import com.example.lra_inventory.dto.InventoryRequest;
 import com.example.lra_inventory.dto.InventoryResponse;
 import com.example.lra_inventory.entity.InventoryReservation;
+import com.example.lra_inventory.entity.ReservationStatus;
+import com.example.lra_inventory.lra.LraCoordinatorClient;
+import com.example.lra_inventory.lra.LraEvents;
+import com.example.lra_inventory.lra.LraMetrics;
+import com.example.lra_inventory.lra.LraParticipantEnlister;
+import com.example.lra_inventory.lra.ParticipantRegistration;
 import com.example.lra_inventory.repository.InventoryReservationRepository;
+import com.example.lra_inventory.repository.InventoryStateStore;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PreDestroy;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.HeaderParam;
@@ -19,7 +33,18 @@ import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.eclipse.microprofile.lra.annotation.Compensate;
 import org.eclipse.microprofile.lra.annotation.Complete;
 import org.eclipse.microprofile.lra.annotation.ParticipantStatus;
@@ -27,6 +52,7 @@ import org.eclipse.microprofile.lra.annotation.Status;
 import org.eclipse.microprofile.lra.annotation.ws.rs.LRA;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_CONTEXT_HEADER;
@@ -37,20 +63,51 @@ import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_CONTEXT
 @Produces(MediaType.APPLICATION_JSON)
 public class InventoryResource {
     private static final Logger log = LoggerFactory.getLogger(InventoryResource.class);
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
     private final InventoryReservationRepository repository;
-    private final ObjectMapper objectMapper;
+    private final InventoryStateStore stateStore;
+    private final PayloadCodec payloadCodec;
+    private final LraParticipantEnlister enlister;
+    private final LraMetrics metrics;
+    private final ParticipantRegistration participant;
+    private final ObjectReader bulkItemReader;
+    private final ObjectWriter bulkResultWriter;
+    private final ExecutorService bulkExecutor;
+
+    @Value("${inventory.bulk.chunk-size:500}")
+    private int bulkChunkSize;
 
     public InventoryResource(InventoryReservationRepository repository,
+                             InventoryStateStore stateStore,
+                             PayloadCodec payloadCodec,
+                             LraParticipantEnlister enlister,
+                             LraMetrics metrics,
                              ObjectMapper objectMapper) {
         this.repository = repository;
-        this.objectMapper = objectMapper;
+        this.stateStore = stateStore;
+        this.payloadCodec = payloadCodec;
+        this.enlister = enlister;
+        this.metrics = metrics;
+        this.participant = enlister.registration(InventoryResource.class.getAnnotation(Path.class).value());
+        this.bulkItemReader = objectMapper.readerFor(InventoryBulkItem.class);
+        this.bulkResultWriter = objectMapper.writerFor(InventoryBulkResult.class);
+        this.bulkExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        bulkExecutor.shutdownNow();
     }
 
     @POST
     @Path("/reserve")
+    @Consumes({MediaType.APPLICATION_JSON, PayloadCodec.APPLICATION_CBOR})
+    @Produces({MediaType.APPLICATION_JSON, PayloadCodec.APPLICATION_CBOR})
     @LRA(value = LRA.Type.MANDATORY, end = false)
     public InventoryResponse reserve(InventoryRequest request,
-                                     @HeaderParam(LRA_HTTP_CONTEXT_HEADER) URI lraId) {
+                                     @HeaderParam(LRA_HTTP_CONTEXT_HEADER) URI lraId,
+                                     @Context HttpHeaders headers) {
         if (lraId == null) {
             throw new WebApplicationException("Missing LRA context", Response.Status.PRECONDITION_FAILED);
         }
@@ -58,18 +115,23 @@ public class InventoryResource {
         // Narayana automatically joins this participant to the LRA
         log.info("Inventory processing: orderId={} lraId={}", request.orderId(), lraId);
 
-        String requestJson = toJson(request);
+        // Keep the audit copy in the encoding the order service negotiated
+        MediaType payloadType = headers.getMediaType();
+        byte[] requestPayload = payloadCodec.encode(request, payloadType);
 
         // Determine status based on failure flag
-        String status = request.fail() ? "FAILED" : "TRY";
+        ReservationStatus status = request.fail() ? ReservationStatus.FAILED : ReservationStatus.TRY;
 
         InventoryReservation reservation = new InventoryReservation(
                 request.orderId(),
                 lraId.toString(),
+                LraCoordinatorClient.lraUid(lraId),
                 status,
-                requestJson
+                payloadCodec.format(payloadType),
+                requestPayload
         );
         repository.save(reservation);
+        stateStore.created(reservation.getLraUid(), status);
 
         // Log failure but still return 200 OK so LRA participant is properly registered
         // The Order service will check the response status field to detect failure
@@ -77,7 +139,38 @@ public class InventoryResource {
             log.info("Inventory reservation failed (simulated): orderId={} lraId={}", request.orderId(), lraId);
         }
 
-        return new InventoryResponse(request.orderId(), reservation.getStatus(), reservation.getLraId());
+        return new InventoryResponse(request.orderId(), status.name(), reservation.getLraId());
+    }
+
+    // One (lraId, request) pair per NDJSON line. Items are enlisted and saved a chunk at a time,
+    // and each chunk's results are streamed back as soon as its transaction commits
+    @POST
+    @Path("/reserve/bulk")
+    @Consumes(APPLICATION_NDJSON)
+    @Produces(APPLICATION_NDJSON)
+    public StreamingOutput reserveBulk(InputStream body) {
+        return output -> {
+            List<InventoryBulkItem> chunk = new ArrayList<>(bulkChunkSize);
+            int index = 0;
+            String malformed = null;
+            try (MappingIterator<InventoryBulkItem> items = bulkItemReader.readValues(body)) {
+                while (items.hasNextValue()) {
+                    chunk.add(items.nextValue());
+                    if (chunk.size() == bulkChunkSize) {
+                        index = reserveChunk(index, chunk, output);
+                    }
+                }
+            } catch (JsonProcessingException ex) {
+                // Items before the bad line are still processed; nothing after it is read
+                malformed = ex.getOriginalMessage();
+            }
+            index = reserveChunk(index, chunk, output);
+            if (malformed != null) {
+                writeBulkResult(output, new InventoryBulkResult(index, null, "REJECTED", null, "Malformed bulk item: " + malformed));
+                output.flush();
+            }
+            log.info("Inventory bulk reserve finished: items={} malformed={}", index, malformed != null);
+        };
     }
 
     @PUT
@@ -87,14 +180,17 @@ public class InventoryResource {
     @Complete
     public Response complete(@HeaderParam(LRA_HTTP_CONTEXT_HEADER) URI lraId) {
         log.info("Inventory complete callback: lraId={}", lraId);
+        LraEvents.Callback event = new LraEvents.Callback(lraId, "complete");
+        event.begin();
+        long started = System.nanoTime();
         try {
-            InventoryReservation reservation = findByLra(lraId);
-            reservation.setStatus("COMPLETED");
-            repository.save(reservation);
-            log.info("Inventory completed successfully: orderId={} lraId={}", reservation.getOrderId(), lraId);
+            int updated = stateStore.transition(LraCoordinatorClient.lraUid(lraId), ReservationStatus.COMPLETED);
+            log.info("Inventory completed successfully: lraId={} updated={}", lraId, updated);
+            metrics.record(LraMetrics.CALLBACKS, "callback", "complete", LraMetrics.SUCCESS, started, event);
             return Response.ok(ParticipantStatus.Completed.name()).build();
         } catch (Exception e) {
             log.error("Inventory complete failed: lraId={}", lraId, e);
+            metrics.record(LraMetrics.CALLBACKS, "callback", "complete", LraMetrics.ERROR, started, event);
             return Response.ok(ParticipantStatus.Completed.name()).build();
         }
     }
@@ -106,14 +202,17 @@ public class InventoryResource {
     @Compensate
     public Response compensate(@HeaderParam(LRA_HTTP_CONTEXT_HEADER) URI lraId) {
         log.info("Inventory compensate callback: lraId={}", lraId);
+        LraEvents.Callback event = new LraEvents.Callback(lraId, "compensate");
+        event.begin();
+        long started = System.nanoTime();
         try {
-            InventoryReservation reservation = findByLra(lraId);
-            reservation.setStatus("COMPENSATED");
-            repository.save(reservation);
-            log.info("Inventory compensated successfully: orderId={} lraId={}", reservation.getOrderId(), lraId);
+            int updated = stateStore.transition(LraCoordinatorClient.lraUid(lraId), ReservationStatus.COMPENSATED);
+            log.info("Inventory compensated successfully: lraId={} updated={}", lraId, updated);
+            metrics.record(LraMetrics.CALLBACKS, "callback", "compensate", LraMetrics.SUCCESS, started, event);
             return Response.ok(ParticipantStatus.Compensated.name()).build();
         } catch (Exception e) {
             log.error("Inventory compensate failed: lraId={}", lraId, e);
+            metrics.record(LraMetrics.CALLBACKS, "callback", "compensate", LraMetrics.ERROR, started, event);
             return Response.ok(ParticipantStatus.Compensated.name()).build();
         }
     }
@@ -122,6 +221,9 @@ public class InventoryResource {
     @Path("/forget")
     @Consumes(MediaType.TEXT_PLAIN)
     public Response forget(@HeaderParam(LRA_HTTP_CONTEXT_HEADER) URI lraId) {
+        if (lraId != null) {
+            stateStore.forget(LraCoordinatorClient.lraUid(lraId));
+        }
         return Response.ok().build();
     }
 
@@ -144,7 +246,7 @@ public class InventoryResource {
     public InventoryResponse status(@PathParam("orderId") String orderId) {
         InventoryReservation reservation = repository.findTopByOrderId(orderId)
                 .orElseThrow(() -> new WebApplicationException("Reservation not found", Response.Status.NOT_FOUND));
-        return new InventoryResponse(reservation.getOrderId(), reservation.getStatus(), reservation.getLraId());
+        return new InventoryResponse(reservation.getOrderId(), reservation.getStatus().name(), reservation.getLraId());
     }
 
     @GET
@@ -158,35 +260,133 @@ public class InventoryResource {
             return Response.ok(ParticipantStatus.Active.name()).build();
         }
         log.info("Inventory lra-status callback: lraId={}", lraId);
+        LraEvents.Callback event = new LraEvents.Callback(lraId, "status");
+        event.begin();
+        long started = System.nanoTime();
         try {
-            InventoryReservation reservation = findByLra(lraId);
-            String status = switch (reservation.getStatus()) {
-                case "COMPLETED" -> ParticipantStatus.Completed.name();
-                case "COMPENSATED" -> ParticipantStatus.Compensated.name();
+            ReservationStatus internalStatus = stateStore.isEnabled() ? cachedStatus(lraId) : findByLra(lraId).getStatus();
+            String status = switch (internalStatus) {
+                case COMPLETED -> ParticipantStatus.Completed.name();
+                case COMPENSATED -> ParticipantStatus.Compensated.name();
                 // FAILED means business logic failed, but compensate hasn't been called yet
                 // So we return Active to signal Narayana to call compensate
-                case "FAILED", "TRY" -> ParticipantStatus.Active.name();
-                default -> ParticipantStatus.Active.name();
+                case FAILED, TRY -> ParticipantStatus.Active.name();
             };
-            log.info("Inventory lra-status: orderId={} internalStatus={} lraStatus={}",
-                    reservation.getOrderId(), reservation.getStatus(), status);
+            log.info("Inventory lra-status: lraId={} internalStatus={} lraStatus={}", lraId, internalStatus, status);
+            metrics.record(LraMetrics.CALLBACKS, "callback", "status", LraMetrics.SUCCESS, started, event);
             return Response.ok(status).build();
         } catch (Exception e) {
             log.error("Inventory lra-status failed: lraId={}", lraId, e);
+            metrics.record(LraMetrics.CALLBACKS, "callback", "status", LraMetrics.ERROR, started, event);
             return Response.ok(ParticipantStatus.Active.name()).build();
         }
     }
 
-    private InventoryReservation findByLra(URI lraId) {
-        return repository.findTopByLraId(lraId.toString())
-                .orElseThrow(() -> new WebApplicationException("Reservation not found", Response.Status.NOT_FOUND));
+    private int reserveChunk(int firstIndex, List<InventoryBulkItem> chunk, OutputStream output) throws IOException {
+        if (chunk.isEmpty()) {
+            return firstIndex;
+        }
+        // Enlist the valid items concurrently; identical joins in flight are coalesced by the coordinator client.
+        // Invalid items are never enlisted, so the coordinator has no callbacks for rows that are not saved.
+        String[] errors = new String[chunk.size()];
+        List<Future<?>> joins = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            InventoryBulkItem item = chunk.get(i);
+            errors[i] = bulkItemError(item);
+            joins.add(errors[i] != null ? null : bulkExecutor.submit(() -> enlister.enlist(item.lraId(), participant)));
+        }
+
+        InventoryBulkResult[] results = new InventoryBulkResult[chunk.size()];
+        List<InventoryReservation> reservations = new ArrayList<>(chunk.size());
+        List<Integer> positions = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            InventoryBulkItem item = chunk.get(i);
+            String orderId = item.request() == null ? null : item.request().orderId();
+            String error = errors[i] != null ? errors[i] : joinError(item, joins.get(i));
+            if (error != null) {
+                results[i] = new InventoryBulkResult(firstIndex + i, orderId, "REJECTED",
+                        item.lraId() == null ? null : item.lraId().toString(), error);
+                continue;
+            }
+            InventoryRequest request = item.request();
+            reservations.add(new InventoryReservation(
+                    orderId,
+                    item.lraId().toString(),
+                    LraCoordinatorClient.lraUid(item.lraId()),
+                    request.fail() ? ReservationStatus.FAILED : ReservationStatus.TRY,
+                    payloadCodec.format(MediaType.APPLICATION_JSON_TYPE),
+                    payloadCodec.encode(request, MediaType.APPLICATION_JSON_TYPE)
+            ));
+            positions.add(i);
+        }
+
+        // One transaction for the chunk instead of one per item
+        String saveError = null;
+        try {
+            repository.saveAll(reservations);
+            reservations.forEach(saved -> stateStore.created(saved.getLraUid(), saved.getStatus()));
+        } catch (RuntimeException ex) {
+            log.error("Inventory bulk reserve chunk failed: firstIndex={} size={}", firstIndex, reservations.size(), ex);
+            saveError = "Reservation save failed: " + ex.getMessage();
+        }
+        for (int j = 0; j < positions.size(); j++) {
+            int i = positions.get(j);
+            InventoryReservation reservation = reservations.get(j);
+            results[i] = new InventoryBulkResult(firstIndex + i, reservation.getOrderId(),
+                    saveError == null ? reservation.getStatus().name() : "REJECTED", reservation.getLraId(), saveError);
+        }
+
+        for (InventoryBulkResult result : results) {
+            writeBulkResult(output, result);
+        }
+        output.flush();
+        int next = firstIndex + chunk.size();
+        chunk.clear();
+        return next;
     }
 
-    private String toJson(Object payload) {
+    private static String bulkItemError(InventoryBulkItem item) {
+        if (item.request() == null) {
+            return "Missing request";
+        }
+        if (item.request().orderId() == null || item.request().orderId().isBlank()) {
+            return "Missing orderId";
+        }
+        if (item.lraId() == null) {
+            return "Missing LRA context";
+        }
+        return null;
+    }
+
+    private String joinError(InventoryBulkItem item, Future<?> join) throws InterruptedIOException {
         try {
-            return objectMapper.writeValueAsString(payload);
-        } catch (JsonProcessingException ex) {
-            throw new WebApplicationException("Failed to serialize payload", Response.Status.BAD_REQUEST);
+            join.get();
+            return null;
+        } catch (ExecutionException ex) {
+            log.warn("Inventory bulk join failed: lraId={}", item.lraId(), ex.getCause());
+            return "LRA join failed: " + ex.getCause().getMessage();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while enlisting bulk items");
         }
     }
+
+    private void writeBulkResult(OutputStream output, InventoryBulkResult result) throws IOException {
+        output.write(bulkResultWriter.writeValueAsBytes(result));
+        output.write('\n');
+    }
+
+    // Answered from memory; falls back to a single lookup when the uid is not cached
+    private ReservationStatus cachedStatus(URI lraId) {
+        ReservationStatus status = stateStore.status(LraCoordinatorClient.lraUid(lraId));
+        if (status == null) {
+            throw new WebApplicationException("Reservation not found", Response.Status.NOT_FOUND);
+        }
+        return status;
+    }
+
+    private InventoryReservation findByLra(URI lraId) {
+        return repository.findTopByLraUid(LraCoordinatorClient.lraUid(lraId))
+                .orElseThrow(() -> new WebApplicationException("Reservation not found", Response.Status.NOT_FOUND));
+    }
 }
@@ -0,0 +1,155 @@
+package com.example.lra_inventory.lra;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.ws.rs.WebApplicationException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+class LraCoordinatorClientTest {
+    private static final int CALLERS = 16;
+
+    private final AtomicInteger joins = new AtomicInteger();
+    private final CountDownLatch joinReceived = new CountDownLatch(1);
+    private final CountDownLatch releaseJoins = new CountDownLatch(1);
+    private volatile int joinStatus = 200;
+    private HttpServer server;
+    private ExecutorService executor;
+    private LraCoordinatorClient client;
+    private ParticipantRegistration participant;
+    private URI lraId;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 64);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/lra-coordinator", this::handle);
+        server.start();
+        String coordinatorUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/lra-coordinator";
+        client = new LraCoordinatorClient(coordinatorUrl, 50, 20, Duration.ofSeconds(2), Duration.ofSeconds(10),
+                Duration.ofSeconds(60),
+                new CoordinatorCircuitBreaker(false, 5, Duration.ofSeconds(5), 1, Duration.ofSeconds(2), 64,
+                        Duration.ofMillis(100)),
+                new LraMetrics(new SimpleMeterRegistry()));
+        participant = new ParticipantRegistration(Map.of(
+                "compensate", URI.create("http://localhost:8081/inventory/compensate"),
+                "complete", URI.create("http://localhost:8081/inventory/complete")));
+        lraId = URI.create(coordinatorUrl + "/0_coalesce");
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseJoins.countDown();
+        client.shutdown();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentIdenticalJoinsShareOneCoordinatorRoundTrip() throws Exception {
+        List<Thread> callers = new ArrayList<>();
+        List<CompletableFuture<URI>> results = joinConcurrently(callers);
+
+        releaseJoins.countDown();
+        for (CompletableFuture<URI> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(results.get(0).get());
+        }
+        assertThat(joins).hasValue(1);
+
+        // Once the shared join is done the next one goes to the coordinator again
+        client.joinLra(lraId, participant, null);
+        assertThat(joins).hasValue(2);
+    }
+
+    @Test
+    void coalescedCallersSeeTheSharedFailure() throws Exception {
+        joinStatus = 412;
+        List<Thread> callers = new ArrayList<>();
+        List<CompletableFuture<URI>> results = joinConcurrently(callers);
+
+        releaseJoins.countDown();
+        for (CompletableFuture<URI> result : results) {
+            Throwable failure = catchThrowableOfType(() -> result.get(5, TimeUnit.SECONDS), Exception.class);
+            assertThat(failure).hasCauseInstanceOf(WebApplicationException.class);
+        }
+        assertThat(joins).hasValue(1);
+    }
+
+    @Test
+    void joinsCarryingParticipantDataAreNotCoalesced() throws Exception {
+        releaseJoins.countDown();
+
+        client.joinLra(lraId, participant, "data-1");
+        client.joinLra(lraId, participant, "data-2");
+
+        assertThat(joins).hasValue(2);
+    }
+
+    // Starts CALLERS identical joins and returns once all but the one on the wire are parked on it
+    private List<CompletableFuture<URI>> joinConcurrently(List<Thread> callers) throws InterruptedException {
+        List<CompletableFuture<URI>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            CompletableFuture<URI> result = new CompletableFuture<>();
+            results.add(result);
+            callers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    result.complete(client.joinLra(lraId, participant, null));
+                } catch (RuntimeException ex) {
+                    result.completeExceptionally(ex);
+                }
+            }));
+        }
+        assertThat(joinReceived.await(5, TimeUnit.SECONDS)).isTrue();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (parked(callers) < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(parked(callers)).isEqualTo(CALLERS - 1);
+        return results;
+    }
+
+    private static long parked(List<Thread> callers) {
+        return callers.stream().filter(caller -> caller.getState() == Thread.State.WAITING).count();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            if (!"PUT".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            joins.incrementAndGet();
+            joinReceived.countDown();
+            try {
+                releaseJoins.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            if (joinStatus == 200) {
+                exchange.getResponseHeaders().add("Long-Running-Action-Recovery",
+                        lraId + "/recovery/" + joins.get());
+            }
+            exchange.sendResponseHeaders(joinStatus, -1);
+        }
+    }
+}
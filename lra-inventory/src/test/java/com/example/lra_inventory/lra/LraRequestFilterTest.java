@@ -0,0 +1,74 @@
+package com.example.lra_inventory.lra;
+
+import com.example.lra_inventory.resource.InventoryResource;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ResourceInfo;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URI;
+import org.junit.jupiter.api.Test;
+
+import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_CONTEXT_HEADER;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LraRequestFilterTest {
+    private static final URI LRA = URI.create("http://coordinator/lra-coordinator/0_filter");
+
+    private final LraCoordinatorClient client = mock(LraCoordinatorClient.class);
+    private final LraParticipantEnlister enlister = mock(LraParticipantEnlister.class);
+    private final LraDeadlines deadlines = mock(LraDeadlines.class);
+    private final LraRequestFilter filter = new LraRequestFilter(client, mock(LraEndDispatcher.class), enlister,
+            mock(LraStartJournal.class), deadlines);
+
+    @Test
+    void compensateCallbackClearsTheLocalDeadline() throws Exception {
+        ContainerRequestContext request = request(InventoryResource.class.getMethod("compensate", URI.class), LRA);
+
+        filter.filter(request);
+
+        verify(deadlines).clear(LRA);
+        verify(request, never()).setProperty(anyString(), any());
+        verify(enlister, never()).registration(anyString());
+    }
+
+    @Test
+    void completeCallbackClearsTheLocalDeadline() throws Exception {
+        filter.filter(request(InventoryResource.class.getMethod("complete", URI.class), LRA));
+
+        verify(deadlines).clear(LRA);
+    }
+
+    @Test
+    void terminationWithoutLraContextIsIgnored() throws Exception {
+        filter.filter(request(InventoryResource.class.getMethod("compensate", URI.class), null));
+
+        verify(deadlines, never()).clear(any());
+    }
+
+    @Test
+    void nonLraMethodLeavesDeadlinesAlone() throws Exception {
+        filter.filter(request(InventoryResource.class.getMethod("status", String.class), LRA));
+
+        verify(deadlines, never()).clear(any());
+        verify(deadlines, never()).track(any(), anyLong(), any());
+    }
+
+    private ContainerRequestContext request(Method method, URI lraId) throws Exception {
+        ResourceInfo resourceInfo = mock(ResourceInfo.class);
+        when(resourceInfo.getResourceMethod()).thenReturn(method);
+        when(resourceInfo.getResourceClass()).thenAnswer(invocation -> InventoryResource.class);
+        Field field = LraRequestFilter.class.getDeclaredField("resourceInfo");
+        field.setAccessible(true);
+        field.set(filter, resourceInfo);
+
+        ContainerRequestContext request = mock(ContainerRequestContext.class);
+        when(request.getHeaderString(LRA_HTTP_CONTEXT_HEADER)).thenReturn(lraId == null ? null : lraId.toString());
+        return request;
+    }
+}
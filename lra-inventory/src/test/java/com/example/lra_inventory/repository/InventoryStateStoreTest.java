@@ -0,0 +1,99 @@
+package com.example.lra_inventory.repository;
+
+import com.example.lra_inventory.entity.ReservationStatus;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InventoryStateStoreTest {
+    @TempDir
+    Path dir;
+
+    private final List<InventoryStateStore> stores = new ArrayList<>();
+
+    @AfterEach
+    void closeStores() throws Exception {
+        for (InventoryStateStore store : stores) {
+            store.close();
+        }
+    }
+
+    @Test
+    void acknowledgedTransitionIsReplayedAfterACrashBeforeTheFlush() throws Exception {
+        InventoryStatusWriter writer = mock(InventoryStatusWriter.class);
+        // The database never confirms the flush, as if the process died first
+        when(writer.submit(anyString(), any())).thenReturn(new CompletableFuture<>());
+        InventoryStateStore store = store(writer);
+        store.created("a", ReservationStatus.TRY);
+        store.created("b", ReservationStatus.TRY);
+
+        assertThat(store.transition("a", ReservationStatus.COMPLETED)).isEqualTo(1);
+        assertThat(store.transition("b", ReservationStatus.COMPENSATED)).isEqualTo(1);
+        assertThat(store.status("a")).isEqualTo(ReservationStatus.COMPLETED);
+
+        InventoryStatusWriter restarted = mock(InventoryStatusWriter.class);
+        store(restarted);
+        verify(restarted).transition("a", ReservationStatus.COMPLETED);
+        verify(restarted).transition("b", ReservationStatus.COMPENSATED);
+        // Replayed entries are in the database now, so the new log starts empty
+        assertThat(Files.size(wal())).isZero();
+    }
+
+    @Test
+    void flushedTransitionsAreNotReplayed() throws Exception {
+        InventoryStatusWriter writer = mock(InventoryStatusWriter.class);
+        when(writer.submit(anyString(), any())).thenReturn(CompletableFuture.completedFuture(1));
+        InventoryStateStore store = store(writer);
+        store.created("a", ReservationStatus.TRY);
+
+        assertThat(store.transition("a", ReservationStatus.COMPLETED)).isEqualTo(1);
+        assertThat(Files.size(wal())).isZero();
+
+        InventoryStatusWriter restarted = mock(InventoryStatusWriter.class);
+        store(restarted);
+        verify(restarted, never()).transition(anyString(), any());
+    }
+
+    @Test
+    void failedFlushKeepsTheLogForReplay() throws Exception {
+        InventoryStatusWriter writer = mock(InventoryStatusWriter.class);
+        when(writer.submit(anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("database down")));
+        InventoryStateStore store = store(writer);
+        store.created("a", ReservationStatus.TRY);
+
+        assertThat(store.transition("a", ReservationStatus.COMPENSATED)).isEqualTo(1);
+        // A second transition out of a terminal state is refused and not logged
+        assertThat(store.transition("a", ReservationStatus.COMPLETED)).isZero();
+        assertThat(Files.readAllLines(wal())).containsExactly("a COMPENSATED");
+
+        InventoryStatusWriter restarted = mock(InventoryStatusWriter.class);
+        store(restarted);
+        verify(restarted).transition("a", ReservationStatus.COMPENSATED);
+    }
+
+    private InventoryStateStore store(InventoryStatusWriter writer) throws Exception {
+        InventoryStateStore store = new InventoryStateStore(mock(InventoryReservationRepository.class), writer, true,
+                wal().toString());
+        store.recover();
+        stores.add(store);
+        return store;
+    }
+
+    private Path wal() {
+        return dir.resolve("lra-inventory").resolve("state.wal");
+    }
+}
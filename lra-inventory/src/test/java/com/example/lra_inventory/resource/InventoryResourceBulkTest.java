@@ -0,0 +1,70 @@
+package com.example.lra_inventory.resource;
+
+import com.example.lra_inventory.codec.PayloadCodec;
+import com.example.lra_inventory.lra.LraMetrics;
+import com.example.lra_inventory.lra.LraParticipantEnlister;
+import com.example.lra_inventory.repository.InventoryReservationRepository;
+import com.example.lra_inventory.repository.InventoryStateStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+class InventoryResourceBulkTest {
+    private static final URI LRA = URI.create("http://coordinator/lra-coordinator/0_bulk");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LraParticipantEnlister enlister = mock(LraParticipantEnlister.class);
+    private final InventoryResource resource = new InventoryResource(mock(InventoryReservationRepository.class),
+            mock(InventoryStateStore.class), new PayloadCodec(objectMapper, "json"), enlister,
+            new LraMetrics(new SimpleMeterRegistry()), objectMapper);
+
+    @AfterEach
+    void tearDown() {
+        resource.shutdown();
+    }
+
+    @Test
+    void invalidItemsAreRejectedWithoutEnlisting() throws Exception {
+        List<String> results = reserveBulk(
+                "{}",
+                "{\"lraId\":\"" + LRA + "\"}",
+                "{\"lraId\":\"" + LRA + "\",\"request\":{\"items\":[]}}",
+                "{\"request\":{\"orderId\":\"o-4\",\"items\":[]}}",
+                "{\"lraId\":\"" + LRA + "\",\"request\":{\"orderId\":\"o-5\",\"items\":[]}}");
+
+        assertThat(results).hasSize(5);
+        assertThat(results.get(0)).contains("REJECTED", "Missing request");
+        assertThat(results.get(1)).contains("REJECTED", "Missing request");
+        assertThat(results.get(2)).contains("REJECTED", "Missing orderId");
+        assertThat(results.get(3)).contains("REJECTED", "Missing LRA context");
+        assertThat(results.get(4)).contains("\"orderId\":\"o-5\"", "TRY");
+        // Only the valid item reached the coordinator
+        verify(enlister).enlist(eq(LRA), any());
+        verify(enlister).registration(any());
+        verifyNoMoreInteractions(enlister);
+    }
+
+    private List<String> reserveBulk(String... lines) throws Exception {
+        Field chunkSize = InventoryResource.class.getDeclaredField("bulkChunkSize");
+        chunkSize.setAccessible(true);
+        chunkSize.setInt(resource, 500);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        resource.reserveBulk(new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8)))
+                .write(output);
+        return output.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+}
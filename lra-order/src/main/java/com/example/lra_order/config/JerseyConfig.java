@@ -1,14 +1,19 @@
 package com.example.lra_order.config;
 
+import com.example.lra_order.coordinator.EmbeddedCoordinatorResource;
 import com.example.lra_order.lra.LraRequestFilter;
 import com.example.lra_order.resource.OrderResource;
 import org.glassfish.jersey.server.ResourceConfig;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class JerseyConfig extends ResourceConfig {
-    public JerseyConfig() {
+    public JerseyConfig(@Value("${lra.coordinator.embedded.enabled:false}") boolean embeddedCoordinator) {
         register(OrderResource.class);
         register(LraRequestFilter.class);
+        if (embeddedCoordinator) {
+            register(EmbeddedCoordinatorResource.class);
+        }
     }
 }
@@ -0,0 +1,121 @@
+package com.example.lra_order.coordinator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+// Append-only record of the embedded coordinator's state changes, one tab-separated line per record.
+// Appends from concurrent callers share an fsync: whoever forces the channel covers every line written before it.
+final class CoordinatorLog implements AutoCloseable {
+    private final Path path;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock forceLock = new ReentrantLock();
+    private FileChannel channel;
+    private volatile long written;
+    private long forced;
+
+    CoordinatorLog(Path path) {
+        this.path = path;
+    }
+
+    List<String> open() throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        List<String> records = Files.exists(path) ? Files.readAllLines(path, StandardCharsets.UTF_8) : List.of();
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        written = channel.size();
+        forced = written;
+        channel.position(written);
+        return records;
+    }
+
+    // Replaces the log with just the given records, e.g. the live LRAs after a replay
+    void rewrite(List<String> records) throws IOException {
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        Files.write(compacted, records, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE,
+                StandardOpenOption.DSYNC);
+        writeLock.lock();
+        try {
+            channel.close();
+            Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(path, StandardOpenOption.WRITE);
+            written = channel.size();
+            forced = written;
+            channel.position(written);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Returns once the record is on disk
+    void append(String... fields) {
+        byte[] line = (String.join("\t", fields) + "\n").getBytes(StandardCharsets.UTF_8);
+        long end;
+        writeLock.lock();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            end = written + line.length;
+            written = end;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to write coordinator log: " + path, ex);
+        } finally {
+            writeLock.unlock();
+        }
+        forceLock.lock();
+        try {
+            if (forced >= end) {
+                return;
+            }
+            long target = written;
+            channel.force(false);
+            forced = target;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to sync coordinator log: " + path, ex);
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    // Drops every record once no LRA is live. Callers register a new LRA before logging its start,
+    // and the check runs under the write lock, so a start record is never cut off.
+    void truncateIf(BooleanSupplier idle) {
+        writeLock.lock();
+        try {
+            if (!idle.getAsBoolean()) {
+                return;
+            }
+            forceLock.lock();
+            try {
+                channel.truncate(0);
+                channel.position(0);
+                written = 0;
+                forced = 0;
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to truncate coordinator log: " + path, ex);
+            } finally {
+                forceLock.unlock();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
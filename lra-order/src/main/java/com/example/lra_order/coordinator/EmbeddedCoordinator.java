@@ -0,0 +1,407 @@
+package com.example.lra_order.coordinator;
+
+import com.example.lra_order.lra.LraTimerWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.core.Link;
+import jakarta.ws.rs.core.Response;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.eclipse.microprofile.lra.annotation.LRAStatus;
+import org.eclipse.microprofile.lra.annotation.ParticipantStatus;
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.JerseyClientBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_CONTEXT_HEADER;
+import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_ENDED_CONTEXT_HEADER;
+
+// In-process stand-in for the Narayana coordinator. LRA and participant state lives in memory and every change is
+// fsynced to a local log first; ending an LRA only queues it, participants are called back on virtual threads.
+@Component
+public class EmbeddedCoordinator {
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedCoordinator.class);
+    private static final String START = "S";
+    private static final String JOIN = "J";
+    private static final String END = "E";
+    private static final String PARTICIPANT = "P";
+    private static final String FINISH = "F";
+
+    private final boolean enabled;
+    private final Path logPath;
+    private final CoordinatorLog journal;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final Map<String, EmbeddedLra> lras = new ConcurrentHashMap<>();
+    private final ExecutorService callbacks = Executors.newVirtualThreadPerTaskExecutor();
+    // LRA time limits and callback retries; its thread only starts once something is scheduled
+    private final LraTimerWheel timer = new LraTimerWheel("lra-coordinator-timer", Duration.ofMillis(10), callbacks);
+    private final Client client;
+
+    public EmbeddedCoordinator(@Value("${lra.coordinator.embedded.enabled:false}") boolean enabled,
+                               @Value("${lra.coordinator.embedded.log-path:${java.io.tmpdir}/lra-order/coordinator.log}") String logPath,
+                               @Value("${lra.coordinator.embedded.callback-timeout:10s}") Duration callbackTimeout,
+                               @Value("${lra.coordinator.embedded.retry.max-attempts:10}") int maxAttempts,
+                               @Value("${lra.coordinator.embedded.retry.backoff:1s}") Duration backoff) {
+        this.enabled = enabled;
+        this.logPath = Path.of(logPath);
+        this.journal = new CoordinatorLog(this.logPath);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoff = backoff;
+        this.client = new JerseyClientBuilder()
+                .property(ClientProperties.CONNECT_TIMEOUT, (int) callbackTimeout.toMillis())
+                .property(ClientProperties.READ_TIMEOUT, (int) callbackTimeout.toMillis())
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Rebuild the LRAs that were live at the last shutdown, compact the log to just them, and resume their ends
+    @PostConstruct
+    void recover() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        for (String record : journal.open()) {
+            replay(record.split("\t"));
+        }
+        List<String> live = new ArrayList<>();
+        for (EmbeddedLra lra : lras.values()) {
+            live.add(String.join("\t", START, lra.uid, lra.lraId.toString(), lra.clientId, Long.toString(lra.deadline)));
+            for (EmbeddedLra.Participant participant : lra.participants) {
+                live.add(String.join("\t", JOIN, lra.uid, participant.recoveryId, participant.linkHeader));
+                if (participant.outcome != null) {
+                    live.add(String.join("\t", PARTICIPANT, lra.uid, participant.recoveryId, participant.outcome.name()));
+                }
+            }
+            if (lra.status != LRAStatus.Active) {
+                live.add(String.join("\t", END, lra.uid, lra.status.name()));
+            }
+        }
+        journal.rewrite(live);
+        for (EmbeddedLra lra : lras.values()) {
+            if (lra.status == LRAStatus.Active) {
+                scheduleTimeout(lra, lra.deadline);
+            } else {
+                callbacks.execute(() -> drive(lra));
+            }
+        }
+        log.info("Embedded LRA coordinator ready: recovered={} log={}", lras.size(), logPath);
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        timer.close();
+        callbacks.shutdownNow();
+        client.close();
+        journal.close();
+    }
+
+    public URI start(URI base, String clientId, long timeLimitMillis) {
+        String uid = "0_" + UUID.randomUUID().toString().replace('-', '_');
+        URI lraId = URI.create(base + "/" + uid);
+        long deadline = timeLimitMillis > 0 ? System.currentTimeMillis() + timeLimitMillis : 0;
+        EmbeddedLra lra = new EmbeddedLra(uid, lraId, clientId == null ? "" : clientId, deadline);
+        // Registered before it is logged so a concurrent log truncation cannot drop the start record
+        lras.put(uid, lra);
+        try {
+            journal.append(START, uid, lraId.toString(), lra.clientId, Long.toString(deadline));
+        } catch (RuntimeException ex) {
+            lras.remove(uid);
+            throw ex;
+        }
+        scheduleTimeout(lra, deadline);
+        log.info("Embedded LRA started: lraId={} clientId={} timeLimit={}ms", lraId, clientId, timeLimitMillis);
+        return lraId;
+    }
+
+    // A participant time limit cancels the LRA when it passes first; unlike the LRA's own limit it is not logged,
+    // so it does not survive a restart
+    public URI join(URI base, String uid, String linkHeader, long timeLimitMillis) {
+        EmbeddedLra lra = find(uid);
+        Map<String, URI> uris = parseLinks(linkHeader);
+        if (!uris.containsKey("complete") && !uris.containsKey("compensate")) {
+            throw new WebApplicationException("Participant has neither a complete nor a compensate link",
+                    Response.Status.BAD_REQUEST);
+        }
+        EmbeddedLra.Participant participant;
+        lra.lock.lock();
+        try {
+            if (lra.status != LRAStatus.Active) {
+                throw new WebApplicationException("LRA is " + lra.status + ": " + uid, Response.Status.PRECONDITION_FAILED);
+            }
+            participant = lra.participant(linkHeader);
+            if (participant != null) {
+                return URI.create(base + "/recovery/" + uid + "/" + participant.recoveryId);
+            }
+            participant = new EmbeddedLra.Participant(Integer.toString(++lra.joined), linkHeader, uris);
+            lra.participants.add(participant);
+        } finally {
+            lra.lock.unlock();
+        }
+        // Logged after the lock is released so the fsync does not hold up other callers on this LRA. Replay does not
+        // depend on the order of JOIN and END records, so an end logged in between still sees this participant.
+        try {
+            journal.append(JOIN, uid, participant.recoveryId, linkHeader);
+        } catch (RuntimeException ex) {
+            lra.participants.remove(participant);
+            throw ex;
+        }
+        if (timeLimitMillis > 0) {
+            scheduleTimeout(lra, System.currentTimeMillis() + timeLimitMillis);
+        }
+        return URI.create(base + "/recovery/" + uid + "/" + participant.recoveryId);
+    }
+
+    public LRAStatus close(String uid) {
+        return end(find(uid), LRAStatus.Closing);
+    }
+
+    public LRAStatus cancel(String uid) {
+        return end(find(uid), LRAStatus.Cancelling);
+    }
+
+    public LRAStatus status(String uid) {
+        return find(uid).status();
+    }
+
+    private LRAStatus end(EmbeddedLra lra, LRAStatus ending) {
+        // Claim the transition under the lock, then log it; concurrent joins and ends see it as ending meanwhile
+        lra.lock.lock();
+        try {
+            if (lra.status != LRAStatus.Active) {
+                return lra.status;
+            }
+            lra.status = ending;
+        } finally {
+            lra.lock.unlock();
+        }
+        try {
+            journal.append(END, lra.uid, ending.name());
+        } catch (RuntimeException ex) {
+            lra.lock.lock();
+            try {
+                lra.status = LRAStatus.Active;
+            } finally {
+                lra.lock.unlock();
+            }
+            throw ex;
+        }
+        log.info("Embedded LRA ending: lraId={} status={} participants={}", lra.lraId, ending, lra.participants.size());
+        callbacks.execute(() -> drive(lra));
+        return ending;
+    }
+
+    // One pass over the participants still owing an answer; reschedules itself with backoff until all have one
+    private void drive(EmbeddedLra lra) {
+        boolean cancel = !lra.closing();
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        for (EmbeddedLra.Participant participant : lra.participants) {
+            if (participant.outcome == null) {
+                calls.add(CompletableFuture.runAsync(() -> callParticipant(lra, participant, cancel), callbacks));
+            }
+        }
+        CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+
+        boolean done = lra.participants.stream().allMatch(participant -> participant.outcome != null);
+        if (done || ++lra.attempts >= maxAttempts) {
+            finish(lra, cancel);
+            return;
+        }
+        timer.schedule(backoff.multipliedBy(lra.attempts), () -> drive(lra));
+    }
+
+    private void callParticipant(EmbeddedLra lra, EmbeddedLra.Participant participant, boolean cancel) {
+        URI target = participant.uris.get(cancel ? "compensate" : "complete");
+        ParticipantStatus outcome;
+        if (target == null) {
+            // Nothing to undo or confirm on this side
+            outcome = cancel ? ParticipantStatus.Compensated : ParticipantStatus.Completed;
+        } else {
+            outcome = put(lra, target, cancel);
+            if (outcome == null) {
+                return;
+            }
+        }
+        if (outcome == ParticipantStatus.FailedToComplete || outcome == ParticipantStatus.FailedToCompensate) {
+            forget(lra, participant);
+        }
+        journal.append(PARTICIPANT, lra.uid, participant.recoveryId, outcome.name());
+        participant.outcome = outcome;
+    }
+
+    // null while the participant is still working on it or could not be reached
+    private ParticipantStatus put(EmbeddedLra lra, URI target, boolean cancel) {
+        ParticipantStatus done = cancel ? ParticipantStatus.Compensated : ParticipantStatus.Completed;
+        try (Response response = client.target(target)
+                .request()
+                .header(LRA_HTTP_CONTEXT_HEADER, lra.lraId)
+                .put(Entity.text(""))) {
+            int status = response.getStatus();
+            if (status == Response.Status.OK.getStatusCode()) {
+                String body = response.hasEntity() ? response.readEntity(String.class).trim() : "";
+                return parseStatus(body, done);
+            }
+            if (status == Response.Status.NOT_FOUND.getStatusCode() || status == Response.Status.GONE.getStatusCode()) {
+                // The participant no longer knows the LRA, so there is nothing left for it to do
+                return done;
+            }
+            log.warn("Embedded LRA participant not finished: lraId={} target={} status={}", lra.lraId, target, status);
+            return null;
+        } catch (RuntimeException ex) {
+            log.warn("Embedded LRA participant call failed: lraId={} target={}", lra.lraId, target, ex);
+            return null;
+        }
+    }
+
+    private void forget(EmbeddedLra lra, EmbeddedLra.Participant participant) {
+        URI forget = participant.uris.get("forget");
+        if (forget == null) {
+            return;
+        }
+        // PUT to match the participants' @Forget endpoints
+        try (Response response = client.target(forget)
+                .request()
+                .header(LRA_HTTP_CONTEXT_HEADER, lra.lraId)
+                .put(Entity.text(""))) {
+            log.info("Embedded LRA participant forgotten: lraId={} target={} status={}", lra.lraId, forget,
+                    response.getStatus());
+        } catch (RuntimeException ex) {
+            log.warn("Embedded LRA forget failed: lraId={} target={}", lra.lraId, forget, ex);
+        }
+    }
+
+    private void finish(EmbeddedLra lra, boolean cancel) {
+        boolean failed = lra.participants.stream().anyMatch(participant -> participant.outcome == null
+                || participant.outcome == ParticipantStatus.FailedToComplete
+                || participant.outcome == ParticipantStatus.FailedToCompensate);
+        LRAStatus outcome = cancel
+                ? (failed ? LRAStatus.FailedToCancel : LRAStatus.Cancelled)
+                : (failed ? LRAStatus.FailedToClose : LRAStatus.Closed);
+        lra.lock.lock();
+        try {
+            lra.status = outcome;
+        } finally {
+            lra.lock.unlock();
+        }
+        for (EmbeddedLra.Participant participant : lra.participants) {
+            URI after = participant.uris.get("after");
+            if (after != null) {
+                callbacks.execute(() -> notifyAfter(lra, after, outcome));
+            }
+        }
+        lras.remove(lra.uid, lra);
+        journal.append(FINISH, lra.uid, outcome.name());
+        journal.truncateIf(lras::isEmpty);
+        if (failed) {
+            log.error("Embedded LRA ended with failures: lraId={} status={} attempts={}", lra.lraId, outcome, lra.attempts);
+        } else {
+            log.info("Embedded LRA ended: lraId={} status={}", lra.lraId, outcome);
+        }
+    }
+
+    private void notifyAfter(EmbeddedLra lra, URI after, LRAStatus outcome) {
+        try (Response response = client.target(after)
+                .request()
+                .header(LRA_HTTP_ENDED_CONTEXT_HEADER, lra.lraId)
+                .put(Entity.text(outcome.name()))) {
+            log.debug("Embedded LRA after notified: lraId={} target={} status={}", lra.lraId, after,
+                    response.getStatus());
+        } catch (RuntimeException ex) {
+            log.warn("Embedded LRA after callback failed: lraId={} target={}", lra.lraId, after, ex);
+        }
+    }
+
+    private void scheduleTimeout(EmbeddedLra lra, long deadline) {
+        if (deadline <= 0) {
+            return;
+        }
+        long delay = Math.max(0, deadline - System.currentTimeMillis());
+        timer.schedule(Duration.ofMillis(delay), () -> {
+            if (lra.status() == LRAStatus.Active) {
+                log.warn("Embedded LRA timed out, cancelling: lraId={}", lra.lraId);
+                end(lra, LRAStatus.Cancelling);
+            }
+        });
+    }
+
+    private void replay(String[] fields) {
+        switch (fields[0]) {
+            case START -> lras.put(fields[1], new EmbeddedLra(fields[1], URI.create(fields[2]), fields[3],
+                    Long.parseLong(fields[4])));
+            case JOIN -> {
+                EmbeddedLra lra = lras.get(fields[1]);
+                if (lra != null) {
+                    lra.participants.add(new EmbeddedLra.Participant(fields[2], fields[3], parseLinks(fields[3])));
+                    lra.joined = Math.max(lra.joined, Integer.parseInt(fields[2]));
+                }
+            }
+            case END -> {
+                EmbeddedLra lra = lras.get(fields[1]);
+                if (lra != null) {
+                    lra.status = LRAStatus.valueOf(fields[2]);
+                }
+            }
+            case PARTICIPANT -> {
+                EmbeddedLra lra = lras.get(fields[1]);
+                if (lra != null) {
+                    lra.participants.stream()
+                            .filter(participant -> participant.recoveryId.equals(fields[2]))
+                            .forEach(participant -> participant.outcome = ParticipantStatus.valueOf(fields[3]));
+                }
+            }
+            case FINISH -> lras.remove(fields[1]);
+            default -> log.warn("Unknown coordinator log record: {}", String.join("\t", fields));
+        }
+    }
+
+    private EmbeddedLra find(String uid) {
+        EmbeddedLra lra = lras.get(uid);
+        if (lra == null) {
+            throw new WebApplicationException("LRA not found: " + uid, Response.Status.NOT_FOUND);
+        }
+        return lra;
+    }
+
+    private static ParticipantStatus parseStatus(String body, ParticipantStatus fallback) {
+        for (ParticipantStatus status : ParticipantStatus.values()) {
+            if (status.name().equalsIgnoreCase(body)) {
+                // Still Completing/Compensating means ask again later
+                return status == ParticipantStatus.Completing || status == ParticipantStatus.Compensating
+                        || status == ParticipantStatus.Active ? null : status;
+            }
+        }
+        return fallback;
+    }
+
+    static Map<String, URI> parseLinks(String linkHeader) {
+        Map<String, URI> uris = new LinkedHashMap<>();
+        if (linkHeader == null || linkHeader.isBlank()) {
+            return uris;
+        }
+        for (String part : linkHeader.split(",(?=\\s*<)")) {
+            Link link = Link.valueOf(part.trim());
+            uris.put(link.getRel(), link.getUri());
+        }
+        return uris;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.lra_order.coordinator;
+
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.PUT;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import java.net.URI;
+import org.springframework.stereotype.Component;
+
+// The subset of the Narayana coordinator REST API that LraCoordinatorClient uses, served by EmbeddedCoordinator
+@Component
+@Path("/lra-coordinator")
+@Produces(MediaType.TEXT_PLAIN)
+public class EmbeddedCoordinatorResource {
+    private static final String RECOVERY_HEADER = "Long-Running-Action-Recovery";
+
+    private final EmbeddedCoordinator coordinator;
+
+    public EmbeddedCoordinatorResource(EmbeddedCoordinator coordinator) {
+        this.coordinator = coordinator;
+    }
+
+    // Nested LRAs are not supported, ParentLRA is accepted and ignored
+    @POST
+    @Path("/start")
+    public Response start(@QueryParam("ClientID") String clientId,
+                          @QueryParam("TimeLimit") @DefaultValue("0") long timeLimit,
+                          @Context UriInfo uriInfo) {
+        URI lraId = coordinator.start(base(uriInfo), clientId, timeLimit);
+        return Response.created(lraId).entity(lraId.toString()).build();
+    }
+
+    @PUT
+    @Path("/{uid}")
+    public Response join(@PathParam("uid") String uid,
+                         @HeaderParam("Link") String link,
+                         @QueryParam("TimeLimit") @DefaultValue("0") long timeLimit,
+                         String body,
+                         @Context UriInfo uriInfo) {
+        // Narayana accepts the participant links either as a Link header or as the request body
+        URI recovery = coordinator.join(base(uriInfo), uid, link != null && !link.isBlank() ? link : body,
+                timeLimit);
+        return Response.ok(recovery.toString()).header(RECOVERY_HEADER, recovery).build();
+    }
+
+    @PUT
+    @Path("/{uid}/close")
+    public Response close(@PathParam("uid") String uid) {
+        return Response.ok(coordinator.close(uid).name()).build();
+    }
+
+    @PUT
+    @Path("/{uid}/cancel")
+    public Response cancel(@PathParam("uid") String uid) {
+        return Response.ok(coordinator.cancel(uid).name()).build();
+    }
+
+    @GET
+    @Path("/{uid}/status")
+    public Response status(@PathParam("uid") String uid) {
+        return Response.ok(coordinator.status(uid).name()).build();
+    }
+
+    private static URI base(UriInfo uriInfo) {
+        return uriInfo.getBaseUriBuilder().path(EmbeddedCoordinatorResource.class).build();
+    }
+}
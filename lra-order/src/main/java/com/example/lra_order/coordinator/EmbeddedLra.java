@@ -0,0 +1,68 @@
+package com.example.lra_order.coordinator;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import org.eclipse.microprofile.lra.annotation.LRAStatus;
+import org.eclipse.microprofile.lra.annotation.ParticipantStatus;
+
+// One LRA held by the embedded coordinator; status and participant changes are made under its lock
+final class EmbeddedLra {
+    final String uid;
+    final URI lraId;
+    final String clientId;
+    // Epoch millis after which the LRA is cancelled, 0 for no limit
+    final long deadline;
+    final List<Participant> participants = new CopyOnWriteArrayList<>();
+    // Never held across log appends or participant calls
+    final ReentrantLock lock = new ReentrantLock();
+    LRAStatus status = LRAStatus.Active;
+    // Last recovery id handed out; a join whose log append fails leaves a gap rather than a reused id
+    int joined;
+    int attempts;
+
+    EmbeddedLra(String uid, URI lraId, String clientId, long deadline) {
+        this.uid = uid;
+        this.lraId = lraId;
+        this.clientId = clientId;
+        this.deadline = deadline;
+    }
+
+    LRAStatus status() {
+        lock.lock();
+        try {
+            return status;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean closing() {
+        return status == LRAStatus.Closing || status == LRAStatus.Closed || status == LRAStatus.FailedToClose;
+    }
+
+    Participant participant(String linkHeader) {
+        for (Participant participant : participants) {
+            if (participant.linkHeader.equals(linkHeader)) {
+                return participant;
+            }
+        }
+        return null;
+    }
+
+    static final class Participant {
+        final String recoveryId;
+        final String linkHeader;
+        final Map<String, URI> uris;
+        // null until complete/compensate reaches an end state
+        volatile ParticipantStatus outcome;
+
+        Participant(String recoveryId, String linkHeader, Map<String, URI> uris) {
+            this.recoveryId = recoveryId;
+            this.linkHeader = linkHeader;
+            this.uris = uris;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.lra_order.dto;
+
+public record BatchOrderResult(
+        int index,
+        String orderId,
+        String status,
+        String lraId,
+        String inventoryStatus,
+        String paymentStatus,
+        String error
+) {
+}
@@ -1,12 +1,16 @@
 package com.example.lra_order.entity;
 
+import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
-import jakarta.persistence.Lob;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OneToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.time.Instant;
 
 @Entity
@@ -17,20 +21,21 @@ public class OrderEntity {
     private String orderId;
 
     @Column(nullable = false)
-    private String status;
+    private OrderStatus status;
 
     @Column
     private String lraId;
 
     @Column
-    private String inventoryStatus;
+    private StepStatus inventoryStatus;
 
     @Column
-    private String paymentStatus;
+    private StepStatus paymentStatus;
 
-    @Lob
-    @Column(nullable = false)
-    private String requestJson;
+    // Audit copy of the request lives in its own table and is only loaded when asked for
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.PERSIST, optional = false)
+    @JoinColumn(name = "request_audit_id", nullable = false, updatable = false)
+    private RequestAudit requestAudit;
 
     @Column(nullable = false, updatable = false)
     private Instant createdAt;
@@ -38,13 +43,17 @@ public class OrderEntity {
     @Column(nullable = false)
     private Instant updatedAt;
 
+    // Lets Spring Data tell a new order (persist, cascading the audit row) from an update (merge)
+    @Version
+    private Long version;
+
     protected OrderEntity() {
     }
 
-    public OrderEntity(String orderId, String status, String requestJson) {
+    public OrderEntity(String orderId, OrderStatus status, String payloadFormat, byte[] requestPayload) {
         this.orderId = orderId;
         this.status = status;
-        this.requestJson = requestJson;
+        this.requestAudit = new RequestAudit(payloadFormat, requestPayload);
     }
 
     @PrePersist
@@ -63,11 +72,14 @@ public class OrderEntity {
         return orderId;
     }
 
-    public String getStatus() {
+    public OrderStatus getStatus() {
         return status;
     }
 
-    public void setStatus(String status) {
+    public void setStatus(OrderStatus status) {
+        if (!this.status.canTransitionTo(status)) {
+            throw new IllegalStateException("Invalid order transition: " + this.status + " -> " + status);
+        }
         this.status = status;
     }
 
@@ -79,24 +91,24 @@ public class OrderEntity {
         this.lraId = lraId;
     }
 
-    public String getInventoryStatus() {
+    public StepStatus getInventoryStatus() {
         return inventoryStatus;
     }
 
-    public void setInventoryStatus(String inventoryStatus) {
+    public void setInventoryStatus(StepStatus inventoryStatus) {
         this.inventoryStatus = inventoryStatus;
     }
 
-    public String getPaymentStatus() {
+    public StepStatus getPaymentStatus() {
         return paymentStatus;
     }
 
-    public void setPaymentStatus(String paymentStatus) {
+    public void setPaymentStatus(StepStatus paymentStatus) {
         this.paymentStatus = paymentStatus;
     }
 
-    public String getRequestJson() {
-        return requestJson;
+    public RequestAudit getRequestAudit() {
+        return requestAudit;
     }
 
     public Instant getCreatedAt() {
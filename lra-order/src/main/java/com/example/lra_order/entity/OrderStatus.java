@@ -0,0 +1,39 @@
+package com.example.lra_order.entity;
+
+// Stored as a small-int code via OrderStatusConverter; codes are part of the schema, never reuse one
+public enum OrderStatus {
+    PENDING(1),
+    CONFIRMED(2),
+    CANCELLED(3);
+
+    private static final OrderStatus[] BY_CODE = new OrderStatus[4];
+
+    static {
+        for (OrderStatus status : values()) {
+            BY_CODE[status.code] = status;
+        }
+    }
+
+    private final byte code;
+
+    OrderStatus(int code) {
+        this.code = (byte) code;
+    }
+
+    public static OrderStatus fromCode(int code) {
+        OrderStatus status = code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (status == null) {
+            throw new IllegalArgumentException("Unknown order status code: " + code);
+        }
+        return status;
+    }
+
+    public byte code() {
+        return code;
+    }
+
+    // Only a pending order moves, and only once
+    public boolean canTransitionTo(OrderStatus target) {
+        return this == PENDING && target != PENDING;
+    }
+}
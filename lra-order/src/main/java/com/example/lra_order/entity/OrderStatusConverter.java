@@ -0,0 +1,17 @@
+package com.example.lra_order.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class OrderStatusConverter implements AttributeConverter<OrderStatus, Short> {
+    @Override
+    public Short convertToDatabaseColumn(OrderStatus status) {
+        return status == null ? null : (short) status.code();
+    }
+
+    @Override
+    public OrderStatus convertToEntityAttribute(Short code) {
+        return code == null ? null : OrderStatus.fromCode(code);
+    }
+}
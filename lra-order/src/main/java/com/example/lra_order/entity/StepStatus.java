@@ -0,0 +1,37 @@
+package com.example.lra_order.entity;
+
+// Per-participant progress of a saga, stored as a small-int code via StepStatusConverter
+public enum StepStatus {
+    SKIPPED(1),
+    RESERVED(2),
+    AUTHORIZED(3),
+    FAILED(4),
+    CANCELLED(5),
+    COMPENSATING(6);
+
+    private static final StepStatus[] BY_CODE = new StepStatus[7];
+
+    static {
+        for (StepStatus status : values()) {
+            BY_CODE[status.code] = status;
+        }
+    }
+
+    private final byte code;
+
+    StepStatus(int code) {
+        this.code = (byte) code;
+    }
+
+    public static StepStatus fromCode(int code) {
+        StepStatus status = code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (status == null) {
+            throw new IllegalArgumentException("Unknown step status code: " + code);
+        }
+        return status;
+    }
+
+    public byte code() {
+        return code;
+    }
+}
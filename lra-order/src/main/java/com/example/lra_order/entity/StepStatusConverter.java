@@ -0,0 +1,17 @@
+package com.example.lra_order.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class StepStatusConverter implements AttributeConverter<StepStatus, Short> {
+    @Override
+    public Short convertToDatabaseColumn(StepStatus status) {
+        return status == null ? null : (short) status.code();
+    }
+
+    @Override
+    public StepStatus convertToEntityAttribute(Short code) {
+        return code == null ? null : StepStatus.fromCode(code);
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.lra_order.lra;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LraEndDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(LraEndDispatcher.class);
+    private static final String CLOSE = "close";
+    private static final String CANCEL = "cancel";
+
+    private final LraCoordinatorClient lraClient;
+    private final LraStartJournal startJournal;
+    private final LraDeadlines deadlines;
+    private final boolean async;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final Path journalDir;
+    private final ThreadPoolExecutor executor;
+
+    public LraEndDispatcher(LraCoordinatorClient lraClient,
+                            LraStartJournal startJournal,
+                            LraDeadlines deadlines,
+                            @Value("${lra.end.async:false}") boolean async,
+                            @Value("${lra.end.executor.threads:4}") int threads,
+                            @Value("${lra.end.executor.queue-capacity:1000}") int queueCapacity,
+                            @Value("${lra.end.retry.max-attempts:5}") int maxAttempts,
+                            @Value("${lra.end.retry.backoff:500ms}") Duration backoff,
+                            @Value("${lra.end.journal-dir:${java.io.tmpdir}/lra-order/pending-ends}") String journalDir,
+                            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.lraClient = lraClient;
+        this.startJournal = startJournal;
+        this.deadlines = deadlines;
+        this.async = async;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoff = backoff;
+        this.journalDir = Path.of(journalDir);
+        // The pool size still caps concurrent ends; virtual workers just don't hold a platform thread while waiting
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("lra-end-", 1).factory()
+                : Thread.ofPlatform().name("lra-end-", 1).daemon(true).factory();
+        // Bounded queue; when it is full the request thread ends the LRA itself instead of piling up work
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public void close(URI lraId) {
+        end(lraId, CLOSE);
+    }
+
+    public void cancel(URI lraId) {
+        end(lraId, CANCEL);
+    }
+
+    private void end(URI lraId, String action) {
+        deadlines.clear(lraId);
+        if (!async) {
+            // Not in a finally: if the end fails the LRA stays journaled and is cancelled as an orphan on the next start
+            endNow(lraId, action);
+            startJournal.ended(lraId);
+            return;
+        }
+        // Record the pending end before the response is released so a crash cannot lose it
+        Path entry;
+        try {
+            entry = journal(lraId, action);
+        } catch (IOException ex) {
+            log.warn("Failed to journal LRA end, ending synchronously: lraId={} action={}", lraId, action, ex);
+            endNow(lraId, action);
+            startJournal.ended(lraId);
+            return;
+        }
+        // The pending end is durable now, so a crash replays it rather than cancelling the LRA as an orphan
+        startJournal.ended(lraId);
+        executor.execute(() -> endWithRetry(lraId, action, entry));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void replayJournal() {
+        if (!Files.isDirectory(journalDir)) {
+            return;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(journalDir, "*.{close,cancel}")) {
+            for (Path entry : entries) {
+                String fileName = entry.getFileName().toString();
+                String action = fileName.substring(fileName.lastIndexOf('.') + 1);
+                URI lraId = URI.create(Files.readString(entry, StandardCharsets.UTF_8).trim());
+                log.info("Replaying pending LRA end: lraId={} action={}", lraId, action);
+                executor.execute(() -> endWithRetry(lraId, action, entry));
+            }
+        } catch (IOException ex) {
+            log.error("Failed to replay LRA end journal: dir={}", journalDir, ex);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            // Unfinished ends stay in the journal and are replayed on the next start
+            executor.shutdownNow();
+        }
+    }
+
+    private void endWithRetry(URI lraId, String action, Path entry) {
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                endNow(lraId, action);
+                Files.deleteIfExists(entry);
+                return;
+            } catch (Exception ex) {
+                log.warn("LRA end attempt failed: lraId={} action={} attempt={}/{}", lraId, action, attempt, maxAttempts, ex);
+                if (attempt == maxAttempts || !sleep(backoff.multipliedBy(attempt))) {
+                    break;
+                }
+            }
+        }
+        log.error("LRA end gave up, left in journal for replay: lraId={} action={} entry={}", lraId, action, entry);
+    }
+
+    private void endNow(URI lraId, String action) {
+        if (CANCEL.equals(action)) {
+            lraClient.cancelLra(lraId);
+        } else {
+            lraClient.closeLra(lraId);
+        }
+    }
+
+    private Path journal(URI lraId, String action) throws IOException {
+        String path = lraId.getPath();
+        String lraUid = path.substring(path.lastIndexOf('/') + 1);
+        Path entry = journalDir.resolve(lraUid + "." + action);
+        Files.createDirectories(journalDir);
+        Files.writeString(entry, lraId.toString(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE, StandardOpenOption.DSYNC);
+        return entry;
+    }
+
+    private static boolean sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
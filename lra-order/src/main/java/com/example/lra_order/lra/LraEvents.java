@@ -0,0 +1,141 @@
+package com.example.lra_order.lra;
+
+import java.net.URI;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Flight Recorder events for the LRA lifecycle. Fields are only filled in when the event is enabled, so a disabled
+// event costs a branch and they stay on in production; record with e.g. -XX:StartFlightRecording and look for
+// the slowest sagas by LRA UID in JMC or `jfr print`
+public final class LraEvents {
+    private LraEvents() {
+    }
+
+    @Category("LRA")
+    @StackTrace(false)
+    public abstract static class LraEvent extends Event {
+        @Label("LRA UID")
+        String lraUid;
+
+        @Label("Outcome")
+        @Description("success, client_error, server_error or error")
+        String outcome;
+
+        LraEvent(URI lraId) {
+            lra(lraId);
+        }
+
+        // The UID is parsed out of the LRA id only when the event is being recorded
+        public final void lra(URI lraId) {
+            if (lraId != null && isEnabled()) {
+                this.lraUid = LraCoordinatorClient.lraUid(lraId);
+            }
+        }
+
+        public void finish(String outcome) {
+            end();
+            if (shouldCommit()) {
+                this.outcome = outcome;
+                commit();
+            }
+        }
+    }
+
+    @Name("com.example.lra.Request")
+    @Label("LRA Request")
+    @Description("A request to an @LRA resource method, from the request filter to the response filter")
+    public static final class Request extends LraEvent {
+        @Label("LRA Type")
+        String type;
+
+        @Label("Resource")
+        String resource;
+
+        @Label("Started LRA")
+        @Description("The filter started the LRA rather than joining the caller's")
+        boolean started;
+
+        public Request(URI lraId, String type, String resource) {
+            super(lraId);
+            if (isEnabled()) {
+                this.type = type;
+                this.resource = resource;
+            }
+        }
+
+        void started(URI lraId) {
+            lra(lraId);
+            this.started = true;
+        }
+    }
+
+    @Name("com.example.lra.Start")
+    @Label("LRA Start")
+    public static final class Start extends LraEvent {
+        @Label("Client ID")
+        String clientId;
+
+        public Start(String clientId) {
+            super(null);
+            if (isEnabled()) {
+                this.clientId = clientId;
+            }
+        }
+    }
+
+    @Name("com.example.lra.Join")
+    @Label("LRA Join")
+    public static final class Join extends LraEvent {
+        public Join(URI lraId) {
+            super(lraId);
+        }
+    }
+
+    @Name("com.example.lra.End")
+    @Label("LRA End")
+    public static final class End extends LraEvent {
+        @Label("Action")
+        @Description("close or cancel")
+        String action;
+
+        public End(URI lraId, String action) {
+            super(lraId);
+            if (isEnabled()) {
+                this.action = action;
+            }
+        }
+    }
+
+    @Name("com.example.lra.ParticipantCall")
+    @Label("LRA Participant Call")
+    public static final class ParticipantCall extends LraEvent {
+        @Label("Participant")
+        String participant;
+
+        public ParticipantCall(URI lraId, String participant) {
+            super(lraId);
+            if (isEnabled()) {
+                this.participant = participant;
+            }
+        }
+    }
+
+    @Name("com.example.lra.Callback")
+    @Label("LRA Callback")
+    public static final class Callback extends LraEvent {
+        @Label("Callback")
+        @Description("complete, compensate or status")
+        String callback;
+
+        public Callback(URI lraId, String callback) {
+            super(lraId);
+            if (isEnabled()) {
+                this.callback = callback;
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.lra_order.lra;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.ws.rs.WebApplicationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+// Per-phase saga timers; every timer publishes a percentile histogram so tail latency can be compared across services.
+// The overloads taking an LraEvents event also emit it to Flight Recorder with the same outcome.
+@Component
+public class LraMetrics {
+    // start/join/close/cancel round trips to the coordinator, tag "operation"
+    public static final String COORDINATOR_REQUESTS = "lra.coordinator.requests";
+    // Orchestrator calls into inventory/payment, tag "participant"
+    public static final String PARTICIPANT_CALLS = "lra.participant.calls";
+    // complete/compensate/status callbacks handled by a participant, tag "callback"
+    public static final String CALLBACKS = "lra.callbacks";
+
+    public static final String SUCCESS = "success";
+    public static final String ERROR = "error";
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public LraMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> T time(String metric, String phaseTag, String phase, Supplier<T> action) {
+        return time(metric, phaseTag, phase, null, action);
+    }
+
+    public <T> T time(String metric, String phaseTag, String phase, LraEvents.LraEvent event, Supplier<T> action) {
+        if (event != null) {
+            event.begin();
+        }
+        long started = System.nanoTime();
+        String outcome = ERROR;
+        try {
+            T result = action.get();
+            outcome = SUCCESS;
+            return result;
+        } catch (WebApplicationException ex) {
+            outcome = outcome(ex.getResponse().getStatus());
+            throw ex;
+        } finally {
+            record(metric, phaseTag, phase, outcome, started, event);
+        }
+    }
+
+    public void record(String metric, String phaseTag, String phase, String outcome, long startedNanos) {
+        record(metric, phaseTag, phase, outcome, startedNanos, null);
+    }
+
+    // The event must have been begun by the caller when it started the phase
+    public void record(String metric, String phaseTag, String phase, String outcome, long startedNanos,
+                       LraEvents.LraEvent event) {
+        if (event != null) {
+            event.finish(outcome);
+        }
+        timer(new TimerKey(metric, phaseTag, phase, outcome)).record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static String outcome(int httpStatus) {
+        if (httpStatus >= 500) {
+            return "server_error";
+        }
+        return httpStatus >= 400 ? "client_error" : SUCCESS;
+    }
+
+    private Timer timer(TimerKey key) {
+        Timer timer = timers.get(key);
+        if (timer != null) {
+            return timer;
+        }
+        return timers.computeIfAbsent(key, k -> Timer.builder(k.metric())
+                .tag(k.phaseTag(), k.phase())
+                .tag("outcome", k.outcome())
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    private record TimerKey(String metric, String phaseTag, String phase, String outcome) {
+    }
+}
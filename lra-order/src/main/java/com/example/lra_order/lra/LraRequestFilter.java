@@ -17,6 +17,7 @@ import java.lang.reflect.Method;
 import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.eclipse.microprofile.lra.annotation.ws.rs.LRA;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,8 +34,16 @@ public class LraRequestFilter implements ContainerRequestFilter, ContainerRespon
     private static final String LRA_ID_PROPERTY = "lra.id";
     private static final String LRA_STARTED_PROPERTY = "lra.started";
     private static final String LRA_END_PROPERTY = "lra.end";
+    private static final String LRA_EVENT_PROPERTY = "lra.event";
+    private static final LraMethod NOT_LRA = new LraMethod(null, false, null, null, 0);
 
     private final LraCoordinatorClient lraClient;
+    private final LraEndDispatcher lraEnds;
+    private final LraJoinCache joinCache;
+    private final LraStartJournal startJournal;
+    private final LraDeadlines deadlines;
+    // Resolved once per resource method so the hot path skips reflection
+    private final Map<Method, LraMethod> lraMethods = new ConcurrentHashMap<>();
 
     @Context
     private ResourceInfo resourceInfo;
@@ -42,22 +51,31 @@ public class LraRequestFilter implements ContainerRequestFilter, ContainerRespon
     @Context
     private UriInfo uriInfo;
 
-    public LraRequestFilter(LraCoordinatorClient lraClient) {
+    public LraRequestFilter(LraCoordinatorClient lraClient, LraEndDispatcher lraEnds, LraJoinCache joinCache,
+                            LraStartJournal startJournal, LraDeadlines deadlines) {
         this.lraClient = lraClient;
+        this.lraEnds = lraEnds;
+        this.joinCache = joinCache;
+        this.startJournal = startJournal;
+        this.deadlines = deadlines;
     }
 
     @Override
     public void filter(ContainerRequestContext requestContext) {
-        LRA lra = resolveLraAnnotation(resourceInfo);
+        LraMethod lra = resolveLraMethod(resourceInfo);
         if (lra == null) {
             return;
         }
 
         URI lraId = readLraId(requestContext);
-        switch (lra.value()) {
+        LraEvents.Request event = new LraEvents.Request(lraId, lra.type().name(), lra.clientId());
+        event.begin();
+        requestContext.setProperty(LRA_EVENT_PROPERTY, event);
+        switch (lra.type()) {
             case REQUIRES_NEW -> {
                 URI parent = lraId;
-                URI started = lraClient.startLra(resourceInfo.getResourceClass().getSimpleName(), parent);
+                URI started = start(lra, parent);
+                event.started(started);
                 requestContext.getHeaders().putSingle(LRA_HTTP_CONTEXT_HEADER, started.toString());
                 requestContext.setProperty(LRA_ID_PROPERTY, started);
                 requestContext.setProperty(LRA_STARTED_PROPERTY, true);
@@ -70,11 +88,12 @@ public class LraRequestFilter implements ContainerRequestFilter, ContainerRespon
                 }
                 requestContext.setProperty(LRA_ID_PROPERTY, lraId);
                 requestContext.setProperty(LRA_END_PROPERTY, false);
-                joinIfParticipant(lraId);
+                joinIfParticipant(lra, lraId);
             }
             case REQUIRED -> {
                 if (lraId == null) {
-                    URI started = lraClient.startLra(resourceInfo.getResourceClass().getSimpleName(), null);
+                    URI started = start(lra, null);
+                    event.started(started);
                     requestContext.getHeaders().putSingle(LRA_HTTP_CONTEXT_HEADER, started.toString());
                     requestContext.setProperty(LRA_ID_PROPERTY, started);
                     requestContext.setProperty(LRA_STARTED_PROPERTY, true);
@@ -82,7 +101,7 @@ public class LraRequestFilter implements ContainerRequestFilter, ContainerRespon
                 } else {
                     requestContext.setProperty(LRA_ID_PROPERTY, lraId);
                     requestContext.setProperty(LRA_END_PROPERTY, false);
-                    joinIfParticipant(lraId);
+                    joinIfParticipant(lra, lraId);
                 }
             }
             default -> {
@@ -95,6 +114,16 @@ public class LraRequestFilter implements ContainerRequestFilter, ContainerRespon
 
     @Override
     public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        try {
+            endStartedLra(requestContext, responseContext);
+        } finally {
+            if (requestContext.getProperty(LRA_EVENT_PROPERTY) instanceof LraEvents.Request event) {
+                event.finish(LraMetrics.outcome(responseContext.getStatus()));
+            }
+        }
+    }
+
+    private void endStartedLra(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
         boolean started = Boolean.TRUE.equals(requestContext.getProperty(LRA_STARTED_PROPERTY));
         boolean shouldEnd = Boolean.TRUE.equals(requestContext.getProperty(LRA_END_PROPERTY));
         if (!started || !shouldEnd) {
@@ -107,21 +136,39 @@ public class LraRequestFilter implements ContainerRequestFilter, ContainerRespon
         }
 
         if (responseContext.getStatus() >= 400) {
-            lraClient.cancelLra(lraId);
-            log.warn("LRA cancelled by filter: {} status={}", lraId, responseContext.getStatus());
+            lraEnds.cancel(lraId);
+            log.warn("LRA cancelled by filter: {} status={} async={}", lraId, responseContext.getStatus(), lraEnds.isAsync());
         } else {
-            lraClient.closeLra(lraId);
-            log.info("LRA closed by filter: {}", lraId);
+            lraEnds.close(lraId);
+            log.info("LRA closed by filter: {} async={}", lraId, lraEnds.isAsync());
         }
     }
 
-    private void joinIfParticipant(URI lraId) {
-        Path classPath = resourceInfo.getResourceClass().getAnnotation(Path.class);
-        if (classPath == null) {
+    private URI start(LraMethod lra, URI parent) {
+        URI started = lraClient.startLra(lra.clientId(), parent, lra.timeLimitMillis());
+        startJournal.started(started);
+        deadlines.track(started, lra.timeLimitMillis(), () -> lraEnds.cancel(started));
+        return started;
+    }
+
+    private void joinIfParticipant(LraMethod lra, URI lraId) {
+        if (lra.classPath() == null) {
             return;
         }
-        Map<String, URI> uris = buildTerminationUris(classPath.value(), uriInfo);
-        lraClient.joinLra(lraId, uris, null);
+        Map<String, URI> uris = buildTerminationUris(lra.classPath(), uriInfo);
+        join(lraId, new ParticipantRegistration(uris), lra.timeLimitMillis());
+    }
+
+    private void join(URI lraId, ParticipantRegistration participant, long timeLimitMillis) {
+        // Retried calls within the same LRA are already enlisted; skip the coordinator round trip
+        URI recovery = joinCache.recoveryUri(lraId, participant);
+        if (recovery != null) {
+            log.debug("LRA join skipped, already enlisted: lraId={} recovery={}", lraId, recovery);
+            return;
+        }
+        recovery = lraClient.joinLra(lraId, participant, null, timeLimitMillis);
+        joinCache.put(lraId, participant, recovery);
+        deadlines.track(lraId, timeLimitMillis, () -> lraEnds.cancel(lraId));
     }
 
     private Map<String, URI> buildTerminationUris(String classPath, UriInfo uriInfo) {
@@ -136,21 +183,43 @@ public class LraRequestFilter implements ContainerRequestFilter, ContainerRespon
         return uris;
     }
 
-    private LRA resolveLraAnnotation(ResourceInfo info) {
+    private LraMethod resolveLraMethod(ResourceInfo info) {
         if (info == null) {
             return null;
         }
         Method method = info.getResourceMethod();
+        Class<?> resourceClass = info.getResourceClass();
+        LraMethod resolved = method == null
+                ? describe(null, resourceClass)
+                : lraMethods.computeIfAbsent(method, m -> describe(m, resourceClass));
+        return resolved == NOT_LRA ? null : resolved;
+    }
+
+    private LraMethod describe(Method method, Class<?> resourceClass) {
+        LRA lra = resolveLraAnnotation(method, resourceClass);
+        if (lra == null) {
+            return NOT_LRA;
+        }
+        Path classPath = resourceClass.getAnnotation(Path.class);
+        return new LraMethod(lra.value(), lra.end(), resourceClass.getSimpleName(),
+                classPath == null ? null : classPath.value(), timeLimitMillis(lra));
+    }
+
+    private LRA resolveLraAnnotation(Method method, Class<?> resourceClass) {
         if (method != null && method.isAnnotationPresent(LRA.class)) {
             return method.getAnnotation(LRA.class);
         }
-        Class<?> resourceClass = info.getResourceClass();
         if (resourceClass != null && resourceClass.isAnnotationPresent(LRA.class)) {
             return resourceClass.getAnnotation(LRA.class);
         }
         return null;
     }
 
+    private static long timeLimitMillis(LRA lra) {
+        // getDuration() also covers the estimated units (DAYS, MONTHS, ...) that Duration.of rejects
+        return lra.timeLimit() <= 0 ? 0 : lra.timeUnit().getDuration().multipliedBy(lra.timeLimit()).toMillis();
+    }
+
     private URI readLraId(ContainerRequestContext requestContext) {
         String header = requestContext.getHeaderString(LRA_HTTP_CONTEXT_HEADER);
         if (header == null || header.isBlank()) {
@@ -158,4 +227,8 @@ public class LraRequestFilter implements ContainerRequestFilter, ContainerRespon
         }
         return URI.create(header);
     }
+
+    // The base URI comes from the request here, so only the class path is cached
+    private record LraMethod(LRA.Type type, boolean end, String clientId, String classPath, long timeLimitMillis) {
+    }
 }
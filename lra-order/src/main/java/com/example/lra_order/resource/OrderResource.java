@@ -1,5 +1,7 @@
 package com.example.lra_order.resource;
 
+import com.example.lra_order.codec.PayloadCodec;
+import com.example.lra_order.dto.BatchOrderResult;
 import com.example.lra_order.dto.InventoryRequest;
 import com.example.lra_order.dto.InventoryResponse;
 import com.example.lra_order.dto.OrderRequest;
@@ -7,9 +9,19 @@ import com.example.lra_order.dto.OrderResponse;
 import com.example.lra_order.dto.PaymentRequest;
 import com.example.lra_order.dto.PaymentResponse;
 import com.example.lra_order.entity.OrderEntity;
+import com.example.lra_order.entity.OrderStatus;
+import com.example.lra_order.entity.StepStatus;
+import com.example.lra_order.lra.LraCoordinatorClient;
+import com.example.lra_order.lra.LraDeadlines;
+import com.example.lra_order.lra.LraEndDispatcher;
+import com.example.lra_order.lra.LraEvents;
+import com.example.lra_order.lra.LraMetrics;
+import com.example.lra_order.lra.LraStartJournal;
 import com.example.lra_order.repository.OrderRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PreDestroy;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.HeaderParam;
@@ -23,9 +35,22 @@ import org.glassfish.jersey.client.JerseyClientBuilder;
 import jakarta.ws.rs.client.Entity;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -40,9 +65,21 @@ import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_CONTEXT
 @Produces(MediaType.APPLICATION_JSON)
 public class OrderResource {
     private static final Logger log = LoggerFactory.getLogger(OrderResource.class);
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+    // An order saga still open after this long is treated as abandoned and cancelled
+    private static final long ORDER_TIME_LIMIT_SECONDS = 60;
     private final OrderRepository orderRepository;
-    private final ObjectMapper objectMapper;
+    private final PayloadCodec payloadCodec;
+    private final LraCoordinatorClient lraClient;
+    private final LraEndDispatcher lraEnds;
+    private final LraStartJournal startJournal;
+    private final LraDeadlines deadlines;
+    private final LraMetrics metrics;
+    private final ObjectWriter batchResultWriter;
+    private final ObjectReader inventoryResponseReader;
+    private final ObjectReader paymentResponseReader;
     private final Client client;
+    private final ExecutorService participantExecutor;
 
     @Value("${inventory.base-url}")
     private String inventoryBaseUrl;
@@ -50,107 +87,355 @@ public class OrderResource {
     @Value("${payment.base-url}")
     private String paymentBaseUrl;
 
+    @Value("${order.participants.parallel:false}")
+    private boolean parallelParticipants;
+
+    @Value("${order.batch.max-parallel:16}")
+    private int batchMaxParallel;
+
+    @Value("${order.batch.max-orders:10000}")
+    private int batchMaxOrders;
+
     public OrderResource(OrderRepository orderRepository,
+                         PayloadCodec payloadCodec,
+                         LraCoordinatorClient lraClient,
+                         LraEndDispatcher lraEnds,
+                         LraStartJournal startJournal,
+                         LraDeadlines deadlines,
+                         LraMetrics metrics,
                          ObjectMapper objectMapper) {
         this.orderRepository = orderRepository;
-        this.objectMapper = objectMapper;
+        this.payloadCodec = payloadCodec;
+        this.lraClient = lraClient;
+        this.lraEnds = lraEnds;
+        this.startJournal = startJournal;
+        this.deadlines = deadlines;
+        this.metrics = metrics;
+        this.batchResultWriter = objectMapper.writerFor(BatchOrderResult.class);
+        this.inventoryResponseReader = payloadCodec.readerFor(InventoryResponse.class);
+        this.paymentResponseReader = payloadCodec.readerFor(PaymentResponse.class);
         this.client = new JerseyClientBuilder().build();
+        this.participantExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        participantExecutor.shutdownNow();
     }
 
     @POST
-    @LRA(value = LRA.Type.REQUIRES_NEW, end = true)
+    @LRA(value = LRA.Type.REQUIRES_NEW, end = true, timeLimit = ORDER_TIME_LIMIT_SECONDS, timeUnit = ChronoUnit.SECONDS)
     public OrderResponse createOrder(OrderRequest request,
                                      @HeaderParam(LRA_HTTP_CONTEXT_HEADER) URI lraId) {
         String orderId = Optional.ofNullable(request.orderId()).orElseGet(() -> UUID.randomUUID().toString());
-        String requestJson = toJson(request);
+        SagaOutcome outcome = runSaga(orderId, request, lraId);
+        if (outcome.failure() != null) {
+            throw new WebApplicationException("Order failed: " + outcome.failure().getMessage(),
+                    Response.Status.INTERNAL_SERVER_ERROR);
+        }
+        return outcome.response();
+    }
+
+    // Each order gets its own LRA and outcome; results are written as NDJSON lines in completion order
+    @POST
+    @Path("/batch")
+    @Produces(APPLICATION_NDJSON)
+    public StreamingOutput createOrders(List<OrderRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new WebApplicationException("Empty order batch", Response.Status.BAD_REQUEST);
+        }
+        if (requests.size() > batchMaxOrders) {
+            throw new WebApplicationException("Order batch too large: " + requests.size() + " > " + batchMaxOrders,
+                    Response.Status.REQUEST_ENTITY_TOO_LARGE);
+        }
+        log.info("Order batch started: orders={} maxParallel={}", requests.size(), batchMaxParallel);
+        return output -> {
+            BatchWriter writer = new BatchWriter(output);
+            Semaphore inFlight = new Semaphore(batchMaxParallel);
+            try (ExecutorService sagas = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < requests.size(); i++) {
+                    int index = i;
+                    OrderRequest request = requests.get(i);
+                    inFlight.acquireUninterruptibly();
+                    sagas.execute(() -> {
+                        try {
+                            writer.write(runBatchOrder(index, request));
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+            }
+            log.info("Order batch finished: orders={} failed={} clientGone={}",
+                    requests.size(), writer.failed(), writer.clientGone());
+        };
+    }
+
+    @GET
+    @Path("/{orderId}")
+    public OrderResponse getOrder(@PathParam("orderId") String orderId) {
+        OrderEntity entity = orderRepository.findById(orderId)
+                .orElseThrow(() -> new WebApplicationException("Order not found", Response.Status.NOT_FOUND));
+
+        return toResponse(entity);
+    }
+
+    private BatchOrderResult runBatchOrder(int index, OrderRequest request) {
+        String orderId = Optional.ofNullable(request.orderId()).orElseGet(() -> UUID.randomUUID().toString());
+        URI lraId;
+        try {
+            lraId = startLra();
+        } catch (Exception ex) {
+            log.error("Order batch LRA start failed: orderId={}", orderId, ex);
+            return new BatchOrderResult(index, orderId, "FAILED", null,
+                    StepStatus.SKIPPED.name(), StepStatus.SKIPPED.name(), ex.getMessage());
+        }
+
+        SagaOutcome outcome;
+        try {
+            outcome = runSaga(orderId, request, lraId);
+        } catch (Exception ex) {
+            log.error("Order batch saga aborted: orderId={} lraId={}", orderId, lraId, ex);
+            lraEnds.cancel(lraId);
+            return new BatchOrderResult(index, orderId, "FAILED", lraId.toString(),
+                    StepStatus.SKIPPED.name(), StepStatus.SKIPPED.name(), ex.getMessage());
+        }
+        if (outcome.failure() != null) {
+            lraEnds.cancel(lraId);
+        } else {
+            lraEnds.close(lraId);
+        }
+        OrderResponse response = outcome.response();
+        return new BatchOrderResult(index, response.orderId(), response.status(), response.lraId(),
+                response.inventoryStatus(), response.paymentStatus(),
+                outcome.failure() == null ? null : outcome.failure().getMessage());
+    }
+
+    // Same lifecycle the request filter gives POST /orders: journaled, with the order time limit enforced
+    private URI startLra() {
+        long timeLimit = TimeUnit.SECONDS.toMillis(ORDER_TIME_LIMIT_SECONDS);
+        URI lraId = lraClient.startLra(OrderResource.class.getSimpleName(), null, timeLimit);
+        startJournal.started(lraId);
+        deadlines.track(lraId, timeLimit, () -> lraEnds.cancel(lraId));
+        return lraId;
+    }
+
+    private SagaOutcome runSaga(String orderId, OrderRequest request, URI lraId) {
+        byte[] requestPayload = payloadCodec.encode(request);
 
         // Narayana automatically started LRA and provided lraId via header
         log.info("Order processing started: orderId={} lraId={}", orderId, lraId);
 
-        OrderEntity entity = new OrderEntity(orderId, "PENDING", requestJson);
+        OrderEntity entity = new OrderEntity(orderId, OrderStatus.PENDING, payloadCodec.format(), requestPayload);
         if (lraId != null) {
             entity.setLraId(lraId.toString());
         }
         orderRepository.save(entity);
 
-        String inventoryStatus = "SKIPPED";
-        String paymentStatus = "SKIPPED";
+        StepStatus inventoryStatus = StepStatus.SKIPPED;
+        StepStatus paymentStatus = StepStatus.SKIPPED;
 
         try {
             InventoryRequest inventoryRequest = new InventoryRequest(orderId, request.items(), request.failInventory());
-            String inventoryResponseJson = callParticipant(inventoryBaseUrl + "/inventory/reserve", lraId, inventoryRequest);
-            InventoryResponse inventoryResponse = objectMapper.readValue(inventoryResponseJson, InventoryResponse.class);
-            if ("FAILED".equalsIgnoreCase(inventoryResponse.status())) {
-                inventoryStatus = "FAILED";
-                throw new WebApplicationException("Inventory reservation failed");
-            }
-            inventoryStatus = "RESERVED";
-
             PaymentRequest paymentRequest = new PaymentRequest(orderId, request.amount(), request.failPayment());
-            String paymentResponseJson = callParticipant(paymentBaseUrl + "/payment/authorize", lraId, paymentRequest);
-            PaymentResponse paymentResponse = objectMapper.readValue(paymentResponseJson, PaymentResponse.class);
-            if ("FAILED".equalsIgnoreCase(paymentResponse.status())) {
-                paymentStatus = "FAILED";
-                throw new WebApplicationException("Payment authorization failed");
+
+            if (parallelParticipants) {
+                // Both steps are independent, so run them side by side and stop at the first FAILED
+                ExecutorCompletionService<String> completion = new ExecutorCompletionService<>(participantExecutor);
+                Future<String> inventoryCall = completion.submit(() -> this.<InventoryResponse>callParticipant("inventory",
+                        inventoryBaseUrl + "/inventory/reserve", lraId, inventoryRequest, inventoryResponseReader).status());
+                Future<String> paymentCall = completion.submit(() -> this.<PaymentResponse>callParticipant("payment",
+                        paymentBaseUrl + "/payment/authorize", lraId, paymentRequest, paymentResponseReader).status());
+                try {
+                    awaitParticipants(completion, 2);
+                } finally {
+                    inventoryCall.cancel(true);
+                    paymentCall.cancel(true);
+                    // Also on interrupt, so a step that already went through is not recorded as SKIPPED
+                    inventoryStatus = stepStatus(inventoryCall, StepStatus.RESERVED);
+                    paymentStatus = stepStatus(paymentCall, StepStatus.AUTHORIZED);
+                }
+                if (inventoryStatus != StepStatus.RESERVED || paymentStatus != StepStatus.AUTHORIZED) {
+                    throw new WebApplicationException("Participant steps failed: inventory=" + inventoryStatus
+                            + " payment=" + paymentStatus);
+                }
+            } else {
+                InventoryResponse inventoryResponse = callParticipant("inventory", inventoryBaseUrl + "/inventory/reserve", lraId,
+                        inventoryRequest, inventoryResponseReader);
+                if (isFailed(inventoryResponse.status())) {
+                    inventoryStatus = StepStatus.FAILED;
+                    throw new WebApplicationException("Inventory reservation failed");
+                }
+                inventoryStatus = StepStatus.RESERVED;
+
+                PaymentResponse paymentResponse = callParticipant("payment", paymentBaseUrl + "/payment/authorize", lraId,
+                        paymentRequest, paymentResponseReader);
+                if (isFailed(paymentResponse.status())) {
+                    paymentStatus = StepStatus.FAILED;
+                    throw new WebApplicationException("Payment authorization failed");
+                }
+                paymentStatus = StepStatus.AUTHORIZED;
             }
-            paymentStatus = "AUTHORIZED";
 
-            entity.setStatus("CONFIRMED");
+            entity.setStatus(OrderStatus.CONFIRMED);
             entity.setInventoryStatus(inventoryStatus);
             entity.setPaymentStatus(paymentStatus);
             orderRepository.save(entity);
 
             log.info("Order completed successfully: orderId={} lraId={}", orderId, lraId);
 
-            return new OrderResponse(orderId, entity.getStatus(), entity.getLraId(),
-                    inventoryStatus, paymentStatus);
+            return new SagaOutcome(toResponse(entity), null);
         } catch (Exception ex) {
             log.error("Order failed: orderId={} lraId={}", orderId, lraId, ex);
-
-            entity.setStatus("CANCELLED");
-            entity.setInventoryStatus(inventoryStatus.equals("RESERVED") ? "COMPENSATING" : inventoryStatus);
-            entity.setPaymentStatus(paymentStatus.equals("AUTHORIZED") ? "COMPENSATING" : paymentStatus);
-            orderRepository.save(entity);
-            throw new WebApplicationException("Order failed: " + ex.getMessage(),
-                    Response.Status.INTERNAL_SERVER_ERROR);
+            try {
+                entity = cancelOrder(entity, inventoryStatus, paymentStatus);
+            } catch (RuntimeException cancelEx) {
+                // Report the saga failure, not the bookkeeping one
+                ex.addSuppressed(cancelEx);
+                log.error("Failed to record cancelled order: orderId={} lraId={}", orderId, lraId, cancelEx);
+            }
+            if (ex instanceof InterruptedException) {
+                // Restored only after the cancelled order is saved, which an interrupted JDBC call could abort
+                Thread.currentThread().interrupt();
+            }
+            return new SagaOutcome(toResponse(entity), ex);
         }
     }
 
-    @GET
-    @Path("/{orderId}")
-    public OrderResponse getOrder(@PathParam("orderId") String orderId) {
-        OrderEntity entity = orderRepository.findById(orderId)
-                .orElseThrow(() -> new WebApplicationException("Order not found", Response.Status.NOT_FOUND));
+    private OrderEntity cancelOrder(OrderEntity entity, StepStatus inventoryStatus, StepStatus paymentStatus) {
+        OrderEntity order = entity;
+        if (order.getStatus() != OrderStatus.PENDING) {
+            // Set to CONFIRMED in memory but the confirming save failed; cancel from what was actually stored
+            order = orderRepository.findById(entity.getOrderId()).orElse(entity);
+        }
+        if (!order.getStatus().canTransitionTo(OrderStatus.CANCELLED)) {
+            log.warn("Order already {}, not cancelled: orderId={}", order.getStatus(), order.getOrderId());
+            return order;
+        }
+        order.setStatus(OrderStatus.CANCELLED);
+        order.setInventoryStatus(inventoryStatus == StepStatus.RESERVED ? StepStatus.COMPENSATING : inventoryStatus);
+        order.setPaymentStatus(paymentStatus == StepStatus.AUTHORIZED ? StepStatus.COMPENSATING : paymentStatus);
+        orderRepository.save(order);
+        return order;
+    }
 
+    private static OrderResponse toResponse(OrderEntity entity) {
         return new OrderResponse(
                 entity.getOrderId(),
-                entity.getStatus(),
+                entity.getStatus().name(),
                 entity.getLraId(),
-                entity.getInventoryStatus(),
-                entity.getPaymentStatus()
+                nameOf(entity.getInventoryStatus()),
+                nameOf(entity.getPaymentStatus())
         );
     }
 
-    private String callParticipant(String url, URI lraId, Object payload) {
+    private static String nameOf(StepStatus status) {
+        return status == null ? null : status.name();
+    }
+
+    private <T> T callParticipant(String participant, String url, URI lraId, Object payload, ObjectReader reader) {
+        return metrics.time(LraMetrics.PARTICIPANT_CALLS, "participant", participant,
+                new LraEvents.ParticipantCall(lraId, participant),
+                () -> this.<T>post(url, lraId, payload, reader));
+    }
+
+    private <T> T post(String url, URI lraId, Object payload, ObjectReader reader) {
         try (Response response = client.target(url)
-                .request(MediaType.APPLICATION_JSON_TYPE)
+                .request(payloadCodec.mediaType())
                 .header(LRA_HTTP_CONTEXT_HEADER, lraId)
-                .post(Entity.json(payload))) {
+                .post(Entity.entity(payloadCodec.encode(payload), payloadCodec.mediaType()))) {
             if (response.getStatus() >= 300) {
                 String body = response.hasEntity() ? response.readEntity(String.class) : "";
                 log.error("Participant call failed: url={} status={} body={}", url, response.getStatus(), body);
                 throw new WebApplicationException("Participant call failed: " + response.getStatus(),
                         Response.Status.fromStatusCode(response.getStatus()));
             }
-            return response.hasEntity() ? response.readEntity(String.class) : "";
+            if (!response.hasEntity()) {
+                throw new WebApplicationException("Empty participant response: " + url, Response.Status.BAD_GATEWAY);
+            }
+            // Decode straight from the entity stream instead of buffering the body into a String first
+            try (InputStream body = response.readEntity(InputStream.class)) {
+                return reader.readValue(body);
+            } catch (IOException ex) {
+                throw new WebApplicationException("Failed to parse participant response: " + url, Response.Status.BAD_GATEWAY);
+            }
         }
     }
 
-    private String toJson(Object payload) {
-        try {
-            return objectMapper.writeValueAsString(payload);
-        } catch (JsonProcessingException ex) {
-            throw new WebApplicationException("Failed to serialize payload", Response.Status.BAD_REQUEST);
+    private void awaitParticipants(ExecutorCompletionService<String> completion, int calls) throws InterruptedException {
+        for (int i = 0; i < calls; i++) {
+            Future<String> done = completion.take();
+            if (done.state() != Future.State.SUCCESS || isFailed(done.resultNow())) {
+                return;
+            }
+        }
+    }
+
+    private static StepStatus stepStatus(Future<String> call, StepStatus successStatus) {
+        return switch (call.state()) {
+            case SUCCESS -> isFailed(call.resultNow()) ? StepStatus.FAILED : successStatus;
+            case FAILED -> StepStatus.FAILED;
+            // The participant may have committed before the cancel reached it; the LRA cancel compensates it
+            case CANCELLED, RUNNING -> StepStatus.COMPENSATING;
+        };
+    }
+
+    // Participants report their own status names on the wire; only FAILED matters here
+    private static boolean isFailed(String participantStatus) {
+        return StepStatus.FAILED.name().equalsIgnoreCase(participantStatus);
+    }
+
+    private record SagaOutcome(OrderResponse response, Exception failure) {
+    }
+
+    // Saga threads finish concurrently; each result goes out as one flushed line
+    private final class BatchWriter {
+        private final OutputStream output;
+        private final ReentrantLock lock = new ReentrantLock();
+        private int failed;
+        private boolean clientGone;
+
+        BatchWriter(OutputStream output) {
+            this.output = output;
+        }
+
+        void write(BatchOrderResult result) {
+            lock.lock();
+            try {
+                if (result.error() != null) {
+                    failed++;
+                }
+                if (clientGone) {
+                    return;
+                }
+                output.write(batchResultWriter.writeValueAsBytes(result));
+                output.write('\n');
+                output.flush();
+            } catch (IOException ex) {
+                // Remaining sagas still run to completion and end their LRAs; only the report is lost
+                clientGone = true;
+                log.warn("Order batch client disconnected: index={}", result.index(), ex);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int failed() {
+            lock.lock();
+            try {
+                return failed;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean clientGone() {
+            lock.lock();
+            try {
+                return clientGone;
+            } finally {
+                lock.unlock();
+            }
         }
     }
 }
@@ -0,0 +1,174 @@
+package com.example.lra_order.lra;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.WebApplicationException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+class CoordinatorCircuitBreakerTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void opensAfterThresholdConsecutiveFailures() {
+        CoordinatorCircuitBreaker breaker = breaker(3, Duration.ofSeconds(30), 64);
+
+        fail(breaker, 503);
+        fail(breaker, 503);
+        // A success in between resets the count
+        assertThat(breaker.call("start", () -> "ok")).isEqualTo("ok");
+        fail(breaker, 503);
+        fail(breaker, 500);
+        assertThat(breaker.state()).isEqualTo(CoordinatorCircuitBreaker.State.CLOSED);
+        fail(breaker, 502);
+        assertThat(breaker.state()).isEqualTo(CoordinatorCircuitBreaker.State.OPEN);
+
+        AtomicInteger calls = new AtomicInteger();
+        WebApplicationException rejected = reject(breaker, calls);
+        assertThat(calls).hasValue(0);
+        assertThat(retryAfter(rejected)).isBetween(29L, 30L);
+        assertThat(counter("rejected_open")).isEqualTo(1);
+        assertThat(registry.get("lra.coordinator.breaker.opened").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void clientErrorsDoNotCountAsFailures() {
+        CoordinatorCircuitBreaker breaker = breaker(2, Duration.ofSeconds(30), 64);
+
+        fail(breaker, 404);
+        fail(breaker, 412);
+        fail(breaker, 404);
+
+        assertThat(breaker.state()).isEqualTo(CoordinatorCircuitBreaker.State.CLOSED);
+        assertThat(counter("success")).isEqualTo(3);
+    }
+
+    @Test
+    void successfulHalfOpenProbeClosesTheCircuit() throws Exception {
+        CoordinatorCircuitBreaker breaker = breaker(1, Duration.ofMillis(50), 64);
+        failWith(breaker, new ProcessingException("connect timed out"));
+        assertThat(breaker.state()).isEqualTo(CoordinatorCircuitBreaker.State.OPEN);
+
+        Thread.sleep(80);
+        assertThat(breaker.call("start", () -> "probe")).isEqualTo("probe");
+
+        assertThat(breaker.state()).isEqualTo(CoordinatorCircuitBreaker.State.CLOSED);
+        assertThat(breaker.call("start", () -> "ok")).isEqualTo("ok");
+    }
+
+    @Test
+    void failedHalfOpenProbeReopensTheCircuit() throws Exception {
+        CoordinatorCircuitBreaker breaker = breaker(1, Duration.ofMillis(50), 64);
+        fail(breaker, 503);
+
+        Thread.sleep(80);
+        fail(breaker, 503);
+
+        assertThat(breaker.state()).isEqualTo(CoordinatorCircuitBreaker.State.OPEN);
+        AtomicInteger calls = new AtomicInteger();
+        reject(breaker, calls);
+        assertThat(calls).hasValue(0);
+        assertThat(registry.get("lra.coordinator.breaker.opened").functionCounter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void halfOpenAdmitsOnlyTheProbeWhileItIsInFlight() throws Exception {
+        CoordinatorCircuitBreaker breaker = breaker(1, Duration.ofMillis(50), 64);
+        fail(breaker, 503);
+        Thread.sleep(80);
+
+        CountDownLatch probing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> probe = CompletableFuture.supplyAsync(() -> breaker.call("start", () -> {
+            probing.countDown();
+            await(release);
+            return "probe";
+        }));
+        assertThat(probing.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(breaker.state()).isEqualTo(CoordinatorCircuitBreaker.State.HALF_OPEN);
+
+        AtomicInteger calls = new AtomicInteger();
+        assertThat(retryAfter(reject(breaker, calls))).isEqualTo(1);
+        assertThat(calls).hasValue(0);
+
+        release.countDown();
+        assertThat(probe.get(5, TimeUnit.SECONDS)).isEqualTo("probe");
+        assertThat(breaker.state()).isEqualTo(CoordinatorCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void fullBulkheadRejectsWithRetryAfter() throws Exception {
+        CoordinatorCircuitBreaker breaker = breaker(5, Duration.ofSeconds(30), 1);
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> holder = CompletableFuture.supplyAsync(() -> breaker.call("join", () -> {
+            inFlight.countDown();
+            await(release);
+            return "held";
+        }));
+        assertThat(inFlight.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(breaker.availableConcurrentCalls()).isZero();
+
+        AtomicInteger calls = new AtomicInteger();
+        WebApplicationException rejected = reject(breaker, calls);
+        assertThat(rejected.getResponse().getStatus()).isEqualTo(503);
+        assertThat(retryAfter(rejected)).isEqualTo(1);
+        assertThat(calls).hasValue(0);
+        assertThat(counter("rejected_bulkhead")).isEqualTo(1);
+
+        release.countDown();
+        assertThat(holder.get(5, TimeUnit.SECONDS)).isEqualTo("held");
+        assertThat(breaker.availableConcurrentCalls()).isEqualTo(1);
+        // Bulkhead rejections say nothing about the coordinator's health
+        assertThat(breaker.state()).isEqualTo(CoordinatorCircuitBreaker.State.CLOSED);
+    }
+
+    private CoordinatorCircuitBreaker breaker(int failureThreshold, Duration openDuration, int maxConcurrentCalls) {
+        CoordinatorCircuitBreaker breaker = new CoordinatorCircuitBreaker(true, failureThreshold, openDuration, 1,
+                Duration.ofSeconds(2), maxConcurrentCalls, Duration.ofMillis(20));
+        breaker.bindTo(registry);
+        return breaker;
+    }
+
+    private static void fail(CoordinatorCircuitBreaker breaker, int status) {
+        failWith(breaker, new WebApplicationException(status));
+    }
+
+    private static void failWith(CoordinatorCircuitBreaker breaker, RuntimeException failure) {
+        RuntimeException thrown = catchThrowableOfType(() -> breaker.call("start", () -> {
+            throw failure;
+        }), RuntimeException.class);
+        assertThat(thrown).isSameAs(failure);
+    }
+
+    private static WebApplicationException reject(CoordinatorCircuitBreaker breaker, AtomicInteger calls) {
+        WebApplicationException rejected = catchThrowableOfType(() -> breaker.call("start", calls::incrementAndGet),
+                WebApplicationException.class);
+        assertThat(rejected).isNotNull();
+        assertThat(rejected.getResponse().getStatus()).isEqualTo(503);
+        return rejected;
+    }
+
+    private static long retryAfter(WebApplicationException rejected) {
+        return Long.parseLong(rejected.getResponse().getHeaderString("Retry-After"));
+    }
+
+    private double counter(String outcome) {
+        return registry.get("lra.coordinator.breaker.calls").tag("outcome", outcome).functionCounter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.lra_order.lra;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LraDeadlinesTest {
+    private static final URI LRA = URI.create("http://coordinator/lra-coordinator/0_deadline");
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private LraDeadlines deadlines;
+
+    @BeforeEach
+    void setUp() {
+        deadlines = new LraDeadlines(Duration.ofMillis(1));
+        deadlines.bindTo(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        deadlines.shutdown();
+    }
+
+    @Test
+    void expiryRunsOnceAndStopsTracking() throws Exception {
+        CountDownLatch expired = new CountDownLatch(1);
+        deadlines.track(LRA, 20, expired::countDown);
+        assertThat(pending()).isEqualTo(1);
+
+        assertThat(expired.await(5, TimeUnit.SECONDS)).isTrue();
+        awaitPending(0);
+    }
+
+    @Test
+    void clearBeforeExpiryCancelsIt() throws Exception {
+        AtomicInteger expired = new AtomicInteger();
+        deadlines.track(LRA, 50, expired::incrementAndGet);
+        deadlines.clear(LRA);
+
+        assertThat(pending()).isZero();
+        Thread.sleep(150);
+        assertThat(expired).hasValue(0);
+    }
+
+    @Test
+    void firstRegisteredLimitWins() throws Exception {
+        CountDownLatch first = new CountDownLatch(1);
+        AtomicInteger second = new AtomicInteger();
+        deadlines.track(LRA, 20, first::countDown);
+        deadlines.track(LRA, 10, second::incrementAndGet);
+        deadlines.track(URI.create("http://coordinator/lra-coordinator/0_unlimited"), 0, second::incrementAndGet);
+
+        assertThat(pending()).isEqualTo(1);
+        assertThat(first.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(50);
+        assertThat(second).hasValue(0);
+    }
+
+    @Test
+    void clearRacingExpiryRunsTheActionAtMostOnce() throws Exception {
+        int count = 5_000;
+        AtomicInteger[] runs = new AtomicInteger[count];
+        for (int i = 0; i < count; i++) {
+            AtomicInteger run = new AtomicInteger();
+            runs[i] = run;
+            deadlines.track(lra(i), 1 + i % 3, run::incrementAndGet);
+        }
+        // Clear every other LRA while their timers are firing
+        for (int i = 0; i < count; i += 2) {
+            deadlines.clear(lra(i));
+        }
+
+        awaitPending(0);
+        Thread.sleep(100);
+        for (int i = 0; i < count; i++) {
+            assertThat(runs[i].get()).as("lra %d", i).isBetween(0, 1);
+            if (i % 2 == 1) {
+                assertThat(runs[i].get()).as("lra %d", i).isEqualTo(1);
+            }
+        }
+    }
+
+    private double pending() {
+        return registry.get("lra.deadlines.pending").gauge().value();
+    }
+
+    private void awaitPending(double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (pending() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(pending()).isEqualTo(expected);
+    }
+
+    private static URI lra(int i) {
+        return URI.create("http://coordinator/lra-coordinator/0_race_" + i);
+    }
+}
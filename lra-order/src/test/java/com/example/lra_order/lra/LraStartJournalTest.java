@@ -0,0 +1,156 @@
+package com.example.lra_order.lra;
+
+import jakarta.ws.rs.WebApplicationException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class LraStartJournalTest {
+    private static final URI A = URI.create("http://coordinator/lra-coordinator/0_a");
+    private static final URI B = URI.create("http://coordinator/lra-coordinator/0_b");
+    private static final URI C = URI.create("http://coordinator/lra-coordinator/0_c");
+
+    @TempDir
+    Path dir;
+
+    private final List<LraStartJournal> journals = new ArrayList<>();
+
+    @AfterEach
+    void closeJournals() throws Exception {
+        for (LraStartJournal journal : journals) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void recoveryStopsAtFirstTornRecord() throws Exception {
+        Path path = dir.resolve("started.journal");
+        LraStartJournal journal = open(mock(LraCoordinatorClient.class), path, DataSize.ofKilobytes(64));
+        journal.started(A);
+        journal.started(B);
+        journal.started(C);
+        journal.close();
+
+        // Flip the last id byte of B's record so its CRC no longer matches; C after it must not be trusted either
+        byte[] bytes = Files.readAllBytes(path);
+        int recordA = A.toString().length() + 7;
+        bytes[recordA + B.toString().length() + 2] ^= 0x01;
+        Files.write(path, bytes);
+
+        LraCoordinatorClient client = mock(LraCoordinatorClient.class);
+        open(client, path, DataSize.ofKilobytes(64)).cancelOrphans();
+
+        verify(client, timeout(5_000)).cancelLra(A);
+        verify(client, never()).cancelLra(B);
+        verify(client, never()).cancelLra(C);
+    }
+
+    @Test
+    void endingLastOpenLraRewindsToHead() throws Exception {
+        Path path = dir.resolve("started.journal");
+        LraStartJournal journal = open(mock(LraCoordinatorClient.class), path, DataSize.ofKilobytes(64));
+        journal.started(A);
+        journal.ended(A);
+
+        assertThat(Files.readAllBytes(path)[0]).isZero();
+
+        // The next start overwrites the stale record at the head
+        journal.started(B);
+        byte[] bytes = Files.readAllBytes(path);
+        assertThat(bytes[0]).isEqualTo((byte) 'S');
+        assertThat(new String(bytes, 3, B.toString().length())).isEqualTo(B.toString());
+        journal.close();
+
+        LraCoordinatorClient client = mock(LraCoordinatorClient.class);
+        open(client, path, DataSize.ofKilobytes(64)).cancelOrphans();
+
+        verify(client, timeout(5_000)).cancelLra(B);
+        verify(client, never()).cancelLra(A);
+    }
+
+    @Test
+    void overflowCompactsToOpenLras() throws Exception {
+        Path path = dir.resolve("started.journal");
+        DataSize size = DataSize.ofBytes(512);
+        LraStartJournal journal = open(mock(LraCoordinatorClient.class), path, size);
+        journal.started(A);
+        // Each cycle writes two ~50 byte records, so the 512 byte file overflows many times over
+        for (int i = 0; i < 200; i++) {
+            URI lraId = URI.create("http://coordinator/lra-coordinator/0_" + i);
+            journal.started(lraId);
+            journal.ended(lraId);
+        }
+        journal.started(B);
+        journal.close();
+
+        assertThat(Files.size(path)).isEqualTo(size.toBytes());
+
+        LraCoordinatorClient client = mock(LraCoordinatorClient.class);
+        open(client, path, size).cancelOrphans();
+
+        verify(client, timeout(5_000)).cancelLra(A);
+        verify(client, timeout(5_000)).cancelLra(B);
+        verify(client, never()).cancelLra(URI.create("http://coordinator/lra-coordinator/0_199"));
+    }
+
+    @Test
+    void orphanCancelKeepsLrasOnServerErrorsOnly() throws Exception {
+        Path path = dir.resolve("started.journal");
+        LraStartJournal journal = open(mock(LraCoordinatorClient.class), path, DataSize.ofKilobytes(64));
+        // Cancelled in this order: C succeeds, B is already gone (404), A fails on the coordinator (503)
+        journal.started(C);
+        journal.started(B);
+        journal.started(A);
+        journal.close();
+
+        LraCoordinatorClient client = mock(LraCoordinatorClient.class);
+        doThrow(new WebApplicationException(404)).when(client).cancelLra(B);
+        doThrow(new WebApplicationException(503)).when(client).cancelLra(A);
+        LraStartJournal recovered = open(client, path, DataSize.ofKilobytes(64));
+        recovered.cancelOrphans();
+        // A is cancelled last, so C and B have been recorded as ended once it is attempted
+        verify(client, timeout(5_000)).cancelLra(A);
+        recovered.close();
+
+        LraCoordinatorClient next = mock(LraCoordinatorClient.class);
+        open(next, path, DataSize.ofKilobytes(64)).cancelOrphans();
+
+        verify(next, timeout(5_000)).cancelLra(A);
+        verify(next, never()).cancelLra(B);
+        verify(next, never()).cancelLra(C);
+    }
+
+    @Test
+    void disabledJournalWritesNothing() throws Exception {
+        Path path = dir.resolve("started.journal");
+        LraCoordinatorClient client = mock(LraCoordinatorClient.class);
+        LraStartJournal journal = new LraStartJournal(client, false, path.toString(), DataSize.ofKilobytes(64));
+        journal.open();
+        journal.started(A);
+        journal.cancelOrphans();
+
+        assertThat(path).doesNotExist();
+        verify(client, never()).cancelLra(any());
+    }
+
+    private LraStartJournal open(LraCoordinatorClient client, Path path, DataSize size) throws Exception {
+        LraStartJournal journal = new LraStartJournal(client, true, path.toString(), size);
+        journal.open();
+        journals.add(journal);
+        return journal;
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.lra_order.lra;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LraTimerWheelTest {
+    private final List<LraTimerWheel> wheels = new ArrayList<>();
+
+    @AfterEach
+    void closeWheels() {
+        wheels.forEach(LraTimerWheel::close);
+    }
+
+    @Test
+    void firesEitherSideOfEveryLevelBoundary() throws Exception {
+        // 100ns ticks put the top wheel 2^24 ticks (~1.7s) out, so every level is reached in a short test
+        long tickNanos = 100;
+        LraTimerWheel wheel = wheel(Duration.ofNanos(tickNanos));
+        List<Long> delays = new ArrayList<>();
+        for (int level = 1; level <= 3; level++) {
+            long boundary = 1L << (8 * level);
+            delays.addAll(List.of(boundary - 1, boundary, boundary + 1));
+        }
+        CountDownLatch fired = new CountDownLatch(delays.size());
+        List<Timed> timed = new ArrayList<>();
+        for (long ticks : delays) {
+            timed.add(new Timed(wheel, Duration.ofNanos(ticks * tickNanos), fired));
+        }
+
+        assertThat(fired.await(20, TimeUnit.SECONDS)).isTrue();
+        for (Timed timeout : timed) {
+            assertThat(timeout.firedAt.get()).as("delay %s", timeout.delay).isGreaterThanOrEqualTo(timeout.dueAt);
+        }
+        assertThat(wheel.pending()).isZero();
+    }
+
+    @Test
+    void cascadedTimeoutsFireInDeadlineOrder() throws Exception {
+        // 1µs ticks: delays of 20-220ms sit on wheels 1 and 2 and cascade down from wheel 2 every ~65ms
+        long tickNanos = 1_000;
+        LraTimerWheel wheel = wheel(Duration.ofNanos(tickNanos));
+        // Timeouts already overdue when the worker places them fire at once in queue order, so start it first
+        CountDownLatch started = new CountDownLatch(1);
+        wheel.schedule(Duration.ZERO, started::countDown);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        int count = 2_000;
+        CountDownLatch fired = new CountDownLatch(count);
+        AtomicInteger sequence = new AtomicInteger();
+        List<Timed> timed = new ArrayList<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < count; i++) {
+            timed.add(new Timed(wheel, Duration.ofNanos(random.nextLong(20_000_000, 220_000_000)), fired, sequence));
+        }
+
+        assertThat(fired.await(20, TimeUnit.SECONDS)).isTrue();
+        timed.sort((a, b) -> Integer.compare(a.order.get(), b.order.get()));
+        long latestDue = Long.MIN_VALUE / 2;
+        for (Timed timeout : timed) {
+            assertThat(timeout.firedAt.get()).isGreaterThanOrEqualTo(timeout.dueAt);
+            // Nothing fires after a timeout that was due more than a tick later
+            assertThat(timeout.dueBy).isGreaterThanOrEqualTo(latestDue - 2 * tickNanos);
+            latestDue = Math.max(latestDue, timeout.dueAt);
+        }
+    }
+
+    @Test
+    void cancelRacingExpiryEitherWinsOrRuns() throws Exception {
+        LraTimerWheel wheel = wheel(Duration.ofNanos(50_000));
+        int count = 20_000;
+        AtomicInteger[] runs = new AtomicInteger[count];
+        boolean[] cancelled = new boolean[count];
+        LraTimerWheel.Timeout[] timeouts = new LraTimerWheel.Timeout[count];
+        for (int i = 0; i < count; i++) {
+            AtomicInteger run = new AtomicInteger();
+            runs[i] = run;
+            timeouts[i] = wheel.schedule(Duration.ofNanos(ThreadLocalRandom.current().nextLong(0, 2_000_000)),
+                    run::incrementAndGet);
+        }
+        // Cancel from another thread while the worker is expiring the same timeouts
+        Thread canceller = Thread.ofPlatform().start(() -> {
+            for (int i = 0; i < count; i++) {
+                cancelled[i] = timeouts[i].cancel();
+                // A second cancel never succeeds
+                assertThat(timeouts[i].cancel()).isFalse();
+            }
+        });
+        canceller.join();
+
+        awaitPending(wheel);
+        for (int i = 0; i < count; i++) {
+            assertThat(runs[i].get()).as("timeout %d", i).isEqualTo(cancelled[i] ? 0 : 1);
+        }
+    }
+
+    @Test
+    void pendingCountsScheduledTimeoutsUntilTheyFireOrAreCancelled() throws Exception {
+        LraTimerWheel wheel = wheel(Duration.ofMillis(1));
+        AtomicBoolean ran = new AtomicBoolean();
+        LraTimerWheel.Timeout longOne = wheel.schedule(Duration.ofHours(1), () -> ran.set(true));
+        wheel.schedule(Duration.ofMillis(5), () -> { });
+        assertThat(wheel.pending()).isEqualTo(2);
+
+        assertThat(longOne.cancel()).isTrue();
+        awaitPending(wheel);
+        assertThat(ran).isFalse();
+    }
+
+    @Test
+    void closedWheelRejectsNewTimeouts() {
+        LraTimerWheel wheel = wheel(Duration.ofMillis(1));
+        wheel.close();
+
+        assertThatThrownBy(() -> wheel.schedule(Duration.ofMillis(1), () -> { }))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private LraTimerWheel wheel(Duration tick) {
+        // Tasks run on the worker thread, so firing order is observable
+        LraTimerWheel wheel = new LraTimerWheel("test-wheel", tick, Runnable::run);
+        wheels.add(wheel);
+        return wheel;
+    }
+
+    private static void awaitPending(LraTimerWheel wheel) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (wheel.pending() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(wheel.pending()).isZero();
+        // Give a lost cancel-vs-fire race time to show up as a stray run
+        Thread.sleep(50);
+    }
+
+    private static final class Timed {
+        final Duration delay;
+        // The wheel reads the clock itself, somewhere between these two
+        final long dueAt;
+        final long dueBy;
+        final AtomicLong firedAt = new AtomicLong();
+        final AtomicInteger order = new AtomicInteger(-1);
+
+        Timed(LraTimerWheel wheel, Duration delay, CountDownLatch fired) {
+            this(wheel, delay, fired, new AtomicInteger());
+        }
+
+        Timed(LraTimerWheel wheel, Duration delay, CountDownLatch fired, AtomicInteger sequence) {
+            this.delay = delay;
+            this.dueAt = System.nanoTime() + delay.toNanos();
+            wheel.schedule(delay, () -> {
+                firedAt.set(System.nanoTime());
+                order.set(sequence.getAndIncrement());
+                fired.countDown();
+            });
+            this.dueBy = System.nanoTime() + delay.toNanos();
+        }
+    }
+}
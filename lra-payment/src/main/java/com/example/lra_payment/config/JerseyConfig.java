@@ -2,6 +2,7 @@ package com.example.lra_payment.config;
 
 import com.example.lra_payment.lra.LraRequestFilter;
 import com.example.lra_payment.resource.PaymentResource;
+import com.fasterxml.jackson.jakarta.rs.cbor.JacksonCBORProvider;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.springframework.context.annotation.Configuration;
 
@@ -10,5 +11,6 @@ public class JerseyConfig extends ResourceConfig {
     public JerseyConfig() {
         register(PaymentResource.class);
         register(LraRequestFilter.class);
+        register(JacksonCBORProvider.class);
     }
 }
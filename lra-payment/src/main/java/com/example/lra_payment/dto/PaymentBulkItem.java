@@ -0,0 +1,9 @@
+package com.example.lra_payment.dto;
+
+import java.net.URI;
+
+public record PaymentBulkItem(
+        URI lraId,
+        PaymentRequest request
+) {
+}
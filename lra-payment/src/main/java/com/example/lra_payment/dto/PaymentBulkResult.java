@@ -0,0 +1,10 @@
+package com.example.lra_payment.dto;
+
+public record PaymentBulkResult(
+        int index,
+        String orderId,
+        String status,
+        String lraId,
+        String error
+) {
+}
@@ -0,0 +1,55 @@
+package com.example.lra_payment.entity;
+
+import java.util.Set;
+
+// Stored as a small-int code via AuthorizationStatusConverter; codes are part of the schema, never reuse one
+public enum AuthorizationStatus {
+    TRY(1),
+    FAILED(2),
+    COMPLETED(3),
+    COMPENSATED(4);
+
+    private static final AuthorizationStatus[] BY_CODE = new AuthorizationStatus[5];
+
+    static {
+        for (AuthorizationStatus status : values()) {
+            BY_CODE[status.code] = status;
+        }
+        TRY.sources = Set.of();
+        FAILED.sources = Set.of();
+        COMPLETED.sources = Set.of(TRY);
+        COMPENSATED.sources = Set.of(TRY, FAILED);
+    }
+
+    private final byte code;
+    private Set<AuthorizationStatus> sources;
+
+    AuthorizationStatus(int code) {
+        this.code = (byte) code;
+    }
+
+    public static AuthorizationStatus fromCode(int code) {
+        AuthorizationStatus status = code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (status == null) {
+            throw new IllegalArgumentException("Unknown authorization status code: " + code);
+        }
+        return status;
+    }
+
+    public byte code() {
+        return code;
+    }
+
+    // States a authorization may move into this one from; also the filter of the conditional UPDATE
+    public Set<AuthorizationStatus> sources() {
+        return sources;
+    }
+
+    public boolean canTransitionTo(AuthorizationStatus target) {
+        return target.sources.contains(this);
+    }
+
+    public boolean isTerminal() {
+        return this == COMPLETED || this == COMPENSATED;
+    }
+}
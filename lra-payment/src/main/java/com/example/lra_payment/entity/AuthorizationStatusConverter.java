@@ -0,0 +1,17 @@
+package com.example.lra_payment.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class AuthorizationStatusConverter implements AttributeConverter<AuthorizationStatus, Short> {
+    @Override
+    public Short convertToDatabaseColumn(AuthorizationStatus status) {
+        return status == null ? null : (short) status.code();
+    }
+
+    @Override
+    public AuthorizationStatus convertToEntityAttribute(Short code) {
+        return code == null ? null : AuthorizationStatus.fromCode(code);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.lra_payment.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+// Append-only audit copy of an incoming request, kept out of the hot authorization row
+@Entity
+@Table(name = "payment_request_audits")
+public class RequestAudit {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_request_audits_id")
+    @SequenceGenerator(name = "payment_request_audits_id", sequenceName = "payment_request_audits_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, updatable = false, length = 16)
+    private String payloadFormat;
+
+    // Plain varbinary: H2 in PostgreSQL mode has no BLOB type
+    @Column(nullable = false, updatable = false, length = 1_048_576)
+    private byte[] requestPayload;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    protected RequestAudit() {
+    }
+
+    public RequestAudit(String payloadFormat, byte[] requestPayload) {
+        this.payloadFormat = payloadFormat;
+        this.requestPayload = requestPayload;
+    }
+
+    @PrePersist
+    void onCreate() {
+        createdAt = Instant.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getPayloadFormat() {
+        return payloadFormat;
+    }
+
+    public byte[] getRequestPayload() {
+        return requestPayload;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.lra_payment.lra;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Guards every call to the coordinator: a bulkhead caps concurrent calls, and after enough consecutive
+// failures (errors, 5xx or slow calls) the circuit opens and calls fail fast with 503 until a half-open probe succeeds
+@Component
+public class CoordinatorCircuitBreaker implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(CoordinatorCircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final boolean enabled;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final int halfOpenProbes;
+    private final long slowCallNanos;
+    private final int maxConcurrentCalls;
+    private final long bulkheadWaitNanos;
+    private final Semaphore bulkhead;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicInteger probesLeft = new AtomicInteger();
+    private volatile long openedAt;
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder slowCalls = new LongAdder();
+    private final LongAdder rejectedOpen = new LongAdder();
+    private final LongAdder rejectedBulkhead = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    public CoordinatorCircuitBreaker(@Value("${lra.coordinator.breaker.enabled:true}") boolean enabled,
+                                     @Value("${lra.coordinator.breaker.failure-threshold:5}") int failureThreshold,
+                                     @Value("${lra.coordinator.breaker.open-duration:5s}") Duration openDuration,
+                                     @Value("${lra.coordinator.breaker.half-open-probes:1}") int halfOpenProbes,
+                                     @Value("${lra.coordinator.breaker.slow-call-threshold:2s}") Duration slowCallThreshold,
+                                     @Value("${lra.coordinator.bulkhead.max-concurrent-calls:64}") int maxConcurrentCalls,
+                                     @Value("${lra.coordinator.bulkhead.max-wait:100ms}") Duration bulkheadMaxWait) {
+        this.enabled = enabled;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenProbes = halfOpenProbes;
+        this.slowCallNanos = slowCallThreshold.toNanos();
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.bulkheadWaitNanos = bulkheadMaxWait.toNanos();
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        log.info("LRA coordinator breaker: enabled={} failureThreshold={} openDuration={} slowCallThreshold={} maxConcurrentCalls={}",
+                enabled, failureThreshold, openDuration, slowCallThreshold, maxConcurrentCalls);
+    }
+
+    public <T> T call(String operation, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        boolean probe = acquirePermission(operation);
+        if (!acquireBulkhead()) {
+            if (probe) {
+                probesLeft.incrementAndGet();
+            }
+            rejectedBulkhead.increment();
+            throw unavailable("LRA coordinator bulkhead full: " + operation, 1);
+        }
+        long started = System.nanoTime();
+        try {
+            T result = call.get();
+            if (System.nanoTime() - started > slowCallNanos) {
+                slowCalls.increment();
+                onFailure(operation);
+            } else {
+                onSuccess();
+            }
+            return result;
+        } catch (RuntimeException ex) {
+            if (isCoordinatorFailure(ex)) {
+                onFailure(operation);
+            } else {
+                // The coordinator answered (e.g. 404/412 for an unknown LRA), so it is healthy
+                onSuccess();
+            }
+            throw ex;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    public State state() {
+        return state.get();
+    }
+
+    public int availableConcurrentCalls() {
+        return bulkhead.availablePermits();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (State candidate : State.values()) {
+            Gauge.builder("lra.coordinator.breaker.state", state, current -> current.get() == candidate ? 1 : 0)
+                    .tag("state", candidate.name().toLowerCase())
+                    .description("1 for the current circuit breaker state, 0 otherwise")
+                    .register(registry);
+        }
+        calls(registry, "success", successes);
+        calls(registry, "failure", failures);
+        calls(registry, "slow", slowCalls);
+        calls(registry, "rejected_open", rejectedOpen);
+        calls(registry, "rejected_bulkhead", rejectedBulkhead);
+        FunctionCounter.builder("lra.coordinator.breaker.opened", opened, LongAdder::sum)
+                .description("Times the circuit opened")
+                .register(registry);
+        Gauge.builder("lra.coordinator.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .description("Free coordinator call slots, out of " + maxConcurrentCalls)
+                .register(registry);
+    }
+
+    private static void calls(MeterRegistry registry, String outcome, LongAdder counter) {
+        FunctionCounter.builder("lra.coordinator.breaker.calls", counter, LongAdder::sum)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    // Returns true when the caller holds one of the half-open probe slots
+    private boolean acquirePermission(String operation) {
+        State current = state.get();
+        if (current == State.OPEN) {
+            long waited = System.nanoTime() - openedAt;
+            if (waited < openNanos) {
+                rejectedOpen.increment();
+                throw unavailable("LRA coordinator circuit open: " + operation, retryAfterSeconds(openNanos - waited));
+            }
+            if (state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+                probesLeft.set(halfOpenProbes);
+                log.info("LRA coordinator circuit half-open, probing");
+            }
+            current = state.get();
+        }
+        if (current == State.HALF_OPEN) {
+            if (probesLeft.getAndDecrement() <= 0) {
+                probesLeft.incrementAndGet();
+                rejectedOpen.increment();
+                throw unavailable("LRA coordinator circuit half-open: " + operation, 1);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private boolean acquireBulkhead() {
+        try {
+            return bulkhead.tryAcquire(bulkheadWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void onSuccess() {
+        successes.increment();
+        consecutiveFailures.set(0);
+        if (state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+            log.info("LRA coordinator circuit closed");
+        }
+    }
+
+    private void onFailure(String operation) {
+        failures.increment();
+        int failed = consecutiveFailures.incrementAndGet();
+        State current = state.get();
+        if (current == State.HALF_OPEN || (current == State.CLOSED && failed >= failureThreshold)) {
+            trip(current, operation, failed);
+        }
+    }
+
+    private synchronized void trip(State from, String operation, int failed) {
+        if (state.get() != from) {
+            return;
+        }
+        // openedAt is written before the state so a caller that sees OPEN also sees when it opened
+        openedAt = System.nanoTime();
+        state.set(State.OPEN);
+        opened.increment();
+        log.warn("LRA coordinator circuit opened: operation={} consecutiveFailures={}", operation, failed);
+    }
+
+    private static boolean isCoordinatorFailure(RuntimeException ex) {
+        if (ex instanceof WebApplicationException wae) {
+            return wae.getResponse().getStatus() >= 500;
+        }
+        // Connect/read timeouts and I/O errors surface from the client as ProcessingException
+        return ex instanceof ProcessingException;
+    }
+
+    private static long retryAfterSeconds(long remainingNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remainingNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private static WebApplicationException unavailable(String message, long retryAfterSeconds) {
+        return new WebApplicationException(message, Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header("Retry-After", retryAfterSeconds)
+                .entity(message)
+                .build());
+    }
+}
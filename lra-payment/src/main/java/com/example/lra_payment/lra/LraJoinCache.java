@@ -0,0 +1,97 @@
+package com.example.lra_payment.lra;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LraJoinCache implements MeterBinder {
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<JoinKey, CachedJoin> joins;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public LraJoinCache(@Value("${lra.join-cache.max-entries:10000}") int maxEntries,
+                        @Value("${lra.join-cache.ttl:5m}") Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        // Access-ordered so the least recently used enlistment is evicted once the cache is full
+        this.joins = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<JoinKey, CachedJoin> eldest) {
+                return size() > LraJoinCache.this.maxEntries;
+            }
+        };
+    }
+
+    public URI recoveryUri(URI lraId, ParticipantRegistration participant) {
+        if (maxEntries <= 0) {
+            return null;
+        }
+        JoinKey key = new JoinKey(lraId.toString(), participant.linkHeader());
+        long now = System.nanoTime();
+        synchronized (joins) {
+            CachedJoin cached = joins.get(key);
+            if (cached != null && now - cached.joinedAt() < ttlNanos) {
+                hits.increment();
+                return cached.recoveryUri();
+            }
+            if (cached != null) {
+                joins.remove(key);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(URI lraId, ParticipantRegistration participant, URI recoveryUri) {
+        if (maxEntries <= 0 || recoveryUri == null) {
+            return;
+        }
+        JoinKey key = new JoinKey(lraId.toString(), participant.linkHeader());
+        synchronized (joins) {
+            joins.put(key, new CachedJoin(recoveryUri, System.nanoTime()));
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        synchronized (joins) {
+            return joins.size();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("lra.join.cache.lookups", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("lra.join.cache.lookups", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("lra.join.cache.size", this, LraJoinCache::size)
+                .register(registry);
+    }
+
+    private record JoinKey(String lraId, String participant) {
+    }
+
+    private record CachedJoin(URI recoveryUri, long joinedAt) {
+    }
+}
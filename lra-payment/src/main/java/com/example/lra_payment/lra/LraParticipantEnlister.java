@@ -0,0 +1,62 @@
+package com.example.lra_payment.lra;
+
+import jakarta.ws.rs.core.UriBuilder;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Joins this service to LRAs; shared by the request filter and the bulk endpoints that enlist per item
+@Component
+public class LraParticipantEnlister {
+    private static final Logger log = LoggerFactory.getLogger(LraParticipantEnlister.class);
+
+    private final LraCoordinatorClient lraClient;
+    private final LraJoinCache joinCache;
+    private final URI externalBaseUri;
+    private final Map<String, ParticipantRegistration> registrations = new ConcurrentHashMap<>();
+
+    public LraParticipantEnlister(LraCoordinatorClient lraClient,
+                                  LraJoinCache joinCache,
+                                  @Value("${app.base-url}") String appBaseUrl) {
+        this.lraClient = lraClient;
+        this.joinCache = joinCache;
+        this.externalBaseUri = URI.create(appBaseUrl);
+    }
+
+    public ParticipantRegistration registration(String classPath) {
+        return registrations.computeIfAbsent(classPath,
+                path -> new ParticipantRegistration(buildTerminationUris(path)));
+    }
+
+    public void enlist(URI lraId, ParticipantRegistration participant) {
+        enlist(lraId, participant, 0);
+    }
+
+    public void enlist(URI lraId, ParticipantRegistration participant, long timeLimitMillis) {
+        // Retried calls within the same LRA are already enlisted; skip the coordinator round trip
+        URI recovery = joinCache.recoveryUri(lraId, participant);
+        if (recovery != null) {
+            log.debug("LRA join skipped, already enlisted: lraId={} recovery={}", lraId, recovery);
+            return;
+        }
+        recovery = lraClient.joinLra(lraId, participant, null, timeLimitMillis);
+        joinCache.put(lraId, participant, recovery);
+    }
+
+    private Map<String, URI> buildTerminationUris(String classPath) {
+        UriBuilder base = UriBuilder.fromUri(externalBaseUri).path(classPath);
+        Map<String, URI> uris = new HashMap<>();
+        uris.put("compensate", base.clone().path("compensate").build());
+        uris.put("complete", base.clone().path("complete").build());
+        uris.put("status", base.clone().path("lra-status").build());
+        uris.put("forget", base.clone().path("forget").build());
+        uris.put("leave", base.clone().path("leave").build());
+        uris.put("after", base.clone().path("after").build());
+        return uris;
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.lra_payment.lra;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.ws.rs.WebApplicationException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+// LRAs this service started and has not yet ended or handed to LraEndDispatcher. After a crash the survivors are
+// cancelled on the next start instead of staying open on the coordinator. Records go to a memory-mapped file;
+// a start waits for an fsync shared with every concurrent append, an end is not forced since losing one only
+// costs a redundant cancel.
+@Component
+public class LraStartJournal {
+    private static final Logger log = LoggerFactory.getLogger(LraStartJournal.class);
+    private static final byte STARTED = 'S';
+    private static final byte ENDED = 'E';
+    // type, id length, CRC32 of the id; a zero type byte marks the end of the records
+    private static final int RECORD_OVERHEAD = 1 + Short.BYTES + Integer.BYTES;
+
+    private final LraCoordinatorClient lraClient;
+    private final boolean enabled;
+    private final Path path;
+    private final int capacity;
+    private final Set<URI> open = ConcurrentHashMap.newKeySet();
+    private final List<URI> orphans = new ArrayList<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock forceLock = new ReentrantLock();
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private volatile int written;
+    private int forced;
+
+    public LraStartJournal(LraCoordinatorClient lraClient,
+                           @Value("${lra.start-journal.enabled:false}") boolean enabled,
+                           @Value("${lra.start-journal.path:${java.io.tmpdir}/lra-payment/started-lras.journal}") String path,
+                           @Value("${lra.start-journal.size:8MB}") DataSize size) {
+        this.lraClient = lraClient;
+        this.enabled = enabled;
+        this.path = Path.of(path);
+        this.capacity = (int) Math.min(Integer.MAX_VALUE, size.toBytes());
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        if (Files.exists(path)) {
+            orphans.addAll(read(ByteBuffer.wrap(Files.readAllBytes(path))));
+        }
+        open.addAll(orphans);
+        writeLock.lock();
+        try {
+            compact();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Off the startup thread: the coordinator may not be reachable yet, and anything not cancelled is kept for next time
+    @EventListener(ApplicationReadyEvent.class)
+    void cancelOrphans() {
+        if (orphans.isEmpty()) {
+            return;
+        }
+        log.warn("Cancelling LRAs left open by a previous run: count={}", orphans.size());
+        Thread.ofVirtual().name("lra-orphan-cancel").start(() -> orphans.forEach(this::cancelOrphan));
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    // Returns once the record is on disk
+    public void started(URI lraId) {
+        if (!enabled) {
+            return;
+        }
+        open.add(lraId);
+        append(STARTED, lraId, true);
+    }
+
+    public void ended(URI lraId) {
+        if (!enabled || !open.remove(lraId)) {
+            return;
+        }
+        append(ENDED, lraId, false);
+    }
+
+    private void cancelOrphan(URI lraId) {
+        try {
+            lraClient.cancelLra(lraId);
+            ended(lraId);
+            log.info("Orphaned LRA cancelled: lraId={}", lraId);
+        } catch (WebApplicationException ex) {
+            int status = ex.getResponse().getStatus();
+            if (status >= 500) {
+                log.error("Orphaned LRA cancel failed, retried on next start: lraId={} status={}", lraId, status);
+                return;
+            }
+            // The coordinator no longer considers it cancellable, e.g. it was closed just before the crash
+            ended(lraId);
+            log.info("Orphaned LRA already ended: lraId={} status={}", lraId, status);
+        } catch (RuntimeException ex) {
+            log.error("Orphaned LRA cancel failed, retried on next start: lraId={}", lraId, ex);
+        }
+    }
+
+    private void append(byte type, URI lraId, boolean force) {
+        byte[] record = record(type, lraId);
+        int end;
+        writeLock.lock();
+        try {
+            if (type == ENDED && open.isEmpty()) {
+                // Nothing is open, so start over at the head; stale bytes after the terminator are never read
+                forceLock.lock();
+                try {
+                    buffer.put(0, (byte) 0);
+                    written = 0;
+                    forced = 0;
+                } finally {
+                    forceLock.unlock();
+                }
+                return;
+            }
+            if (written + record.length + 1 > buffer.capacity()) {
+                // The compacted file is rewritten from the open set, which already reflects this record
+                compact();
+                return;
+            }
+            buffer.put(written, record);
+            buffer.put(written + record.length, (byte) 0);
+            end = written + record.length;
+            written = end;
+        } finally {
+            writeLock.unlock();
+        }
+        if (force) {
+            force(end);
+        }
+    }
+
+    // Group commit: whoever holds the lock forces everything written so far, later callers find their record covered
+    private void force(int end) {
+        forceLock.lock();
+        try {
+            if (forced >= end) {
+                return;
+            }
+            int target = written;
+            buffer.force(forced, target - forced);
+            forced = target;
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    // Caller holds writeLock. Writes the open LRAs to a fresh file, syncs it and swaps it in.
+    private void compact() {
+        forceLock.lock();
+        try {
+            List<byte[]> records = new ArrayList<>();
+            int length = 0;
+            for (URI lraId : open) {
+                byte[] record = record(STARTED, lraId);
+                records.add(record);
+                length += record.length;
+            }
+            int size = Math.max(capacity, length * 2 + 1);
+            Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+            FileChannel next = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            MappedByteBuffer mapped = next.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            int position = 0;
+            for (byte[] record : records) {
+                mapped.put(position, record);
+                position += record.length;
+            }
+            mapped.force();
+            Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (channel != null) {
+                channel.close();
+            }
+            channel = next;
+            buffer = mapped;
+            written = position;
+            forced = position;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to compact LRA start journal: " + path, ex);
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    private static byte[] record(byte type, URI lraId) {
+        byte[] id = lraId.toString().getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(id);
+        return ByteBuffer.allocate(RECORD_OVERHEAD + id.length)
+                .put(type)
+                .putShort((short) id.length)
+                .put(id)
+                .putInt((int) crc.getValue())
+                .array();
+    }
+
+    // Stops at the terminator or at the first torn record
+    private static Collection<URI> read(ByteBuffer in) {
+        Set<URI> started = new LinkedHashSet<>();
+        while (in.remaining() >= RECORD_OVERHEAD) {
+            byte type = in.get();
+            if (type != STARTED && type != ENDED) {
+                break;
+            }
+            int length = Short.toUnsignedInt(in.getShort());
+            if (in.remaining() < length + Integer.BYTES) {
+                break;
+            }
+            byte[] id = new byte[length];
+            in.get(id);
+            CRC32 crc = new CRC32();
+            crc.update(id);
+            if (in.getInt() != (int) crc.getValue()) {
+                break;
+            }
+            URI lraId = URI.create(new String(id, StandardCharsets.UTF_8));
+            if (type == STARTED) {
+                started.add(lraId);
+            } else {
+                started.remove(lraId);
+            }
+        }
+        return started;
+    }
+}
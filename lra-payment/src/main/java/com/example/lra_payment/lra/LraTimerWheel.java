@@ -0,0 +1,257 @@
+package com.example.lra_payment.lra;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Hierarchical hashed timer wheel: LEVELS wheels of 256 slots, each slot of one wheel spanning a full turn of the
+// wheel below. Scheduling and cancelling are O(1) hand-offs to the worker thread; a timeout moves down one wheel
+// each time its slot on the coarser wheel comes round, so hundreds of thousands of deadlines cost a few list
+// operations each. Expired tasks run on the given executor, never on the worker.
+public final class LraTimerWheel implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(LraTimerWheel.class);
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    // With 10ms ticks the top wheel reaches about 16 months; later deadlines are parked there and re-placed
+    private static final long MAX_TICKS = (1L << (SLOT_BITS * LEVELS)) - 1;
+    // Upper bound on new timeouts placed per tick so a burst cannot stall expiry
+    private static final int MAX_PLACED_PER_TICK = 100_000;
+
+    private final String name;
+    private final long tickNanos;
+    private final Executor executor;
+    private final Slot[][] wheels = new Slot[LEVELS][SLOTS];
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final long startNanos = System.nanoTime();
+    private volatile boolean closed;
+    private volatile Thread worker;
+    // Owned by the worker thread
+    private long currentTick;
+
+    public LraTimerWheel(String name, Duration tick, Executor executor) {
+        this.name = name;
+        this.tickNanos = Math.max(1, tick.toNanos());
+        this.executor = executor;
+        for (Slot[] wheel : wheels) {
+            for (int i = 0; i < SLOTS; i++) {
+                wheel[i] = new Slot();
+            }
+        }
+    }
+
+    public Timeout schedule(Duration delay, Runnable task) {
+        if (closed) {
+            throw new IllegalStateException("Timer wheel closed: " + name);
+        }
+        start();
+        long deadline = System.nanoTime() - startNanos + Math.max(0, delay.toNanos());
+        Timeout timeout = new Timeout(this, deadline, task);
+        pending.incrementAndGet();
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    public long pending() {
+        return pending.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    // The worker only starts once something is scheduled, so an unused wheel costs no thread
+    private void start() {
+        if (started.get() || !started.compareAndSet(false, true)) {
+            return;
+        }
+        worker = Thread.ofPlatform().name(name).daemon(true).start(this::run);
+    }
+
+    private void run() {
+        // Nothing was scheduled before the worker started, so there are no earlier ticks to replay
+        currentTick = (System.nanoTime() - startNanos) / tickNanos;
+        while (!closed) {
+            long targetTick = (System.nanoTime() - startNanos) / tickNanos;
+            // Catch up tick by tick after a stall so cascades are never skipped
+            while (currentTick < targetTick && !closed) {
+                currentTick++;
+                unlinkCancelled();
+                placeScheduled();
+                cascade();
+                expire(wheels[0][(int) (currentTick & MASK)]);
+            }
+            long nextTickNanos = startNanos + (currentTick + 1) * tickNanos;
+            LockSupport.parkNanos(this, nextTickNanos - System.nanoTime());
+            if (Thread.interrupted() && closed) {
+                break;
+            }
+        }
+    }
+
+    private void unlinkCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.slot != null) {
+                timeout.slot.remove(timeout);
+            }
+        }
+    }
+
+    private void placeScheduled() {
+        for (int i = 0; i < MAX_PLACED_PER_TICK; i++) {
+            Timeout timeout = scheduled.poll();
+            if (timeout == null) {
+                return;
+            }
+            // Rounded up so a timeout never fires before its delay has passed
+            timeout.deadlineTick = (timeout.deadlineNanos + tickNanos - 1) / tickNanos;
+            place(timeout);
+        }
+    }
+
+    private void place(Timeout timeout) {
+        if (timeout.state.get() != Timeout.WAITING) {
+            return;
+        }
+        long remaining = timeout.deadlineTick - currentTick;
+        if (remaining <= 0) {
+            fire(timeout);
+            return;
+        }
+        long tick = remaining > MAX_TICKS ? currentTick + MAX_TICKS : timeout.deadlineTick;
+        for (int level = 0; level < LEVELS; level++) {
+            if (tick - currentTick < 1L << (SLOT_BITS * (level + 1)) || level == LEVELS - 1) {
+                wheels[level][(int) ((tick >>> (SLOT_BITS * level)) & MASK)].add(timeout);
+                return;
+            }
+        }
+    }
+
+    // When a wheel completes a turn, the next slot of the wheel above is spread over the wheels below
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                return;
+            }
+            Slot slot = wheels[level][(int) ((currentTick >>> (SLOT_BITS * level)) & MASK)];
+            Timeout timeout = slot.clear();
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                timeout.next = null;
+                timeout.prev = null;
+                place(timeout);
+                timeout = next;
+            }
+        }
+    }
+
+    private void expire(Slot slot) {
+        Timeout timeout = slot.clear();
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.next = null;
+            timeout.prev = null;
+            fire(timeout);
+            timeout = next;
+        }
+    }
+
+    private void fire(Timeout timeout) {
+        if (!timeout.state.compareAndSet(Timeout.WAITING, Timeout.EXPIRED)) {
+            return;
+        }
+        pending.decrementAndGet();
+        try {
+            executor.execute(timeout.task);
+        } catch (RuntimeException ex) {
+            log.error("Timer task rejected: wheel={}", name, ex);
+        }
+    }
+
+    public static final class Timeout {
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final LraTimerWheel wheel;
+        private final long deadlineNanos;
+        private final Runnable task;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        // Owned by the worker thread
+        private long deadlineTick;
+        private Slot slot;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(LraTimerWheel wheel, long deadlineNanos, Runnable task) {
+            this.wheel = wheel;
+            this.deadlineNanos = deadlineNanos;
+            this.task = task;
+        }
+
+        // false once the task has been handed to the executor
+        public boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED)) {
+                return false;
+            }
+            wheel.pending.decrementAndGet();
+            wheel.cancelled.add(this);
+            return true;
+        }
+    }
+
+    // Intrusive doubly linked list, so a cancelled timeout is unlinked without a scan
+    private static final class Slot {
+        private Timeout head;
+
+        void add(Timeout timeout) {
+            timeout.slot = this;
+            timeout.next = head;
+            if (head != null) {
+                head.prev = timeout;
+            }
+            head = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.slot = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        Timeout clear() {
+            Timeout first = head;
+            Timeout timeout = first;
+            while (timeout != null) {
+                timeout.slot = null;
+                timeout = timeout.next;
+            }
+            head = null;
+            return first;
+        }
+    }
+}
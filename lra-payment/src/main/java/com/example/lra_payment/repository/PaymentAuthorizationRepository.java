@@ -1,10 +1,25 @@
 package com.example.lra_payment.repository;
 
+import com.example.lra_payment.entity.AuthorizationStatus;
 import com.example.lra_payment.entity.PaymentAuthorization;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface PaymentAuthorizationRepository extends JpaRepository<PaymentAuthorization, Long> {
     Optional<PaymentAuthorization> findTopByLraId(String lraId);
+    Optional<PaymentAuthorization> findTopByLraUid(String lraUid);
     Optional<PaymentAuthorization> findTopByOrderId(String orderId);
+
+    @Modifying
+    @Query("update PaymentAuthorization a set a.status = :status, a.updatedAt = :updatedAt "
+            + "where a.lraUid = :lraUid and a.status in :fromStatuses")
+    int updateStatus(@Param("lraUid") String lraUid,
+                     @Param("status") AuthorizationStatus status,
+                     @Param("fromStatuses") Collection<AuthorizationStatus> fromStatuses,
+                     @Param("updatedAt") Instant updatedAt);
 }
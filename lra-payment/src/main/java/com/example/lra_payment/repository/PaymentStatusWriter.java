@@ -0,0 +1,106 @@
+package com.example.lra_payment.repository;
+
+import com.example.lra_payment.entity.AuthorizationStatus;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+public class PaymentStatusWriter {
+    private static final Logger log = LoggerFactory.getLogger(PaymentStatusWriter.class);
+
+    private final PaymentAuthorizationRepository repository;
+    private final TransactionTemplate transactions;
+    private final int maxBatchSize;
+    private final BlockingQueue<StatusUpdate> pending = new LinkedBlockingQueue<>();
+    private final Thread writer;
+
+    public PaymentStatusWriter(PaymentAuthorizationRepository repository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${lra.callback.max-batch-size:64}") int maxBatchSize) {
+        this.repository = repository;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.writer = new Thread(this::drain, "payment-status-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // Conditional UPDATE without loading the entity; concurrent callers are group-committed in one transaction.
+    // Returns the number of rows moved to the new status (0 if already there or not in an allowed state).
+    public int transition(String lraUid, AuthorizationStatus status) {
+        try {
+            return submit(lraUid, status).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    // Same update without waiting for the commit
+    public CompletableFuture<Integer> submit(String lraUid, AuthorizationStatus status) {
+        StatusUpdate update = new StatusUpdate(lraUid, status, new CompletableFuture<>());
+        pending.add(update);
+        return update.result();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writer.interrupt();
+    }
+
+    private void drain() {
+        List<StatusUpdate> batch = new ArrayList<>(maxBatchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(pending.take());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            pending.drainTo(batch, maxBatchSize - 1);
+            write(batch);
+            batch.clear();
+        }
+        StatusUpdate update;
+        while ((update = pending.poll()) != null) {
+            update.result().completeExceptionally(new IllegalStateException("Status writer stopped"));
+        }
+    }
+
+    private void write(List<StatusUpdate> batch) {
+        try {
+            Instant now = Instant.now();
+            List<Integer> counts = transactions.execute(tx -> {
+                List<Integer> updated = new ArrayList<>(batch.size());
+                for (StatusUpdate update : batch) {
+                    updated.add(repository.updateStatus(update.lraUid(), update.status(), update.status().sources(), now));
+                }
+                return updated;
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(counts.get(i));
+            }
+            log.debug("Payment status batch committed: size={}", batch.size());
+        } catch (RuntimeException ex) {
+            log.error("Payment status batch failed: size={}", batch.size(), ex);
+            batch.forEach(update -> update.result().completeExceptionally(ex));
+        }
+    }
+
+    private record StatusUpdate(String lraUid, AuthorizationStatus status, CompletableFuture<Integer> result) {
+    }
+}
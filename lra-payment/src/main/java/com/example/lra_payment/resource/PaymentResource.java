@@ -1,11 +1,25 @@
 package com.example.lra_payment.resource;
 
+import com.example.lra_payment.codec.PayloadCodec;
+import com.example.lra_payment.dto.PaymentBulkItem;
+import com.example.lra_payment.dto.PaymentBulkResult;
 import com.example.lra_payment.dto.PaymentRequest;
 import com.example.lra_payment.dto.PaymentResponse;
+import com.example.lra_payment.entity.AuthorizationStatus;
 import com.example.lra_payment.entity.PaymentAuthorization;
+import com.example.lra_payment.lra.LraCoordinatorClient;
+import com.example.lra_payment.lra.LraEvents;
+import com.example.lra_payment.lra.LraMetrics;
+import com.example.lra_payment.lra.LraParticipantEnlister;
+import com.example.lra_payment.lra.ParticipantRegistration;
 import com.example.lra_payment.repository.PaymentAuthorizationRepository;
+import com.example.lra_payment.repository.PaymentStateStore;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PreDestroy;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.HeaderParam;
@@ -19,7 +33,18 @@ import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.eclipse.microprofile.lra.annotation.Compensate;
 import org.eclipse.microprofile.lra.annotation.Complete;
 import org.eclipse.microprofile.lra.annotation.ParticipantStatus;
@@ -27,6 +52,7 @@ import org.eclipse.microprofile.lra.annotation.Status;
 import org.eclipse.microprofile.lra.annotation.ws.rs.LRA;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_CONTEXT_HEADER;
@@ -37,20 +63,51 @@ import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_CONTEXT
 @Produces(MediaType.APPLICATION_JSON)
 public class PaymentResource {
     private static final Logger log = LoggerFactory.getLogger(PaymentResource.class);
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
     private final PaymentAuthorizationRepository repository;
-    private final ObjectMapper objectMapper;
+    private final PaymentStateStore stateStore;
+    private final PayloadCodec payloadCodec;
+    private final LraParticipantEnlister enlister;
+    private final LraMetrics metrics;
+    private final ParticipantRegistration participant;
+    private final ObjectReader bulkItemReader;
+    private final ObjectWriter bulkResultWriter;
+    private final ExecutorService bulkExecutor;
+
+    @Value("${payment.bulk.chunk-size:500}")
+    private int bulkChunkSize;
 
     public PaymentResource(PaymentAuthorizationRepository repository,
+                           PaymentStateStore stateStore,
+                           PayloadCodec payloadCodec,
+                           LraParticipantEnlister enlister,
+                           LraMetrics metrics,
                            ObjectMapper objectMapper) {
         this.repository = repository;
-        this.objectMapper = objectMapper;
+        this.stateStore = stateStore;
+        this.payloadCodec = payloadCodec;
+        this.enlister = enlister;
+        this.metrics = metrics;
+        this.participant = enlister.registration(PaymentResource.class.getAnnotation(Path.class).value());
+        this.bulkItemReader = objectMapper.readerFor(PaymentBulkItem.class);
+        this.bulkResultWriter = objectMapper.writerFor(PaymentBulkResult.class);
+        this.bulkExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        bulkExecutor.shutdownNow();
     }
 
     @POST
     @Path("/authorize")
+    @Consumes({MediaType.APPLICATION_JSON, PayloadCodec.APPLICATION_CBOR})
+    @Produces({MediaType.APPLICATION_JSON, PayloadCodec.APPLICATION_CBOR})
     @LRA(value = LRA.Type.MANDATORY, end = false)
     public PaymentResponse authorize(PaymentRequest request,
-                                     @HeaderParam(LRA_HTTP_CONTEXT_HEADER) URI lraId) {
+                                     @HeaderParam(LRA_HTTP_CONTEXT_HEADER) URI lraId,
+                                     @Context HttpHeaders headers) {
         if (lraId == null) {
             throw new WebApplicationException("Missing LRA context", Response.Status.PRECONDITION_FAILED);
         }
@@ -58,18 +115,23 @@ public class PaymentResource {
         // Narayana automatically joins this participant to the LRA
         log.info("Payment processing: orderId={} lraId={}", request.orderId(), lraId);
 
-        String requestJson = toJson(request);
+        // Keep the audit copy in the encoding the order service negotiated
+        MediaType payloadType = headers.getMediaType();
+        byte[] requestPayload = payloadCodec.encode(request, payloadType);
 
         // Determine status based on failure flag
-        String status = request.fail() ? "FAILED" : "TRY";
+        AuthorizationStatus status = request.fail() ? AuthorizationStatus.FAILED : AuthorizationStatus.TRY;
 
         PaymentAuthorization authorization = new PaymentAuthorization(
                 request.orderId(),
                 lraId.toString(),
+                LraCoordinatorClient.lraUid(lraId),
                 status,
-                requestJson
+                payloadCodec.format(payloadType),
+                requestPayload
         );
         repository.save(authorization);
+        stateStore.created(authorization.getLraUid(), status);
 
         // Log failure but still return 200 OK so LRA participant is properly registered
         // The Order service will check the response status field to detect failure
@@ -77,7 +139,38 @@ public class PaymentResource {
             log.info("Payment authorization failed (simulated): orderId={} lraId={}", request.orderId(), lraId);
         }
 
-        return new PaymentResponse(request.orderId(), authorization.getStatus(), authorization.getLraId());
+        return new PaymentResponse(request.orderId(), status.name(), authorization.getLraId());
+    }
+
+    // One (lraId, request) pair per NDJSON line. Items are enlisted and saved a chunk at a time,
+    // and each chunk's results are streamed back as soon as its transaction commits
+    @POST
+    @Path("/authorize/bulk")
+    @Consumes(APPLICATION_NDJSON)
+    @Produces(APPLICATION_NDJSON)
+    public StreamingOutput authorizeBulk(InputStream body) {
+        return output -> {
+            List<PaymentBulkItem> chunk = new ArrayList<>(bulkChunkSize);
+            int index = 0;
+            String malformed = null;
+            try (MappingIterator<PaymentBulkItem> items = bulkItemReader.readValues(body)) {
+                while (items.hasNextValue()) {
+                    chunk.add(items.nextValue());
+                    if (chunk.size() == bulkChunkSize) {
+                        index = authorizeChunk(index, chunk, output);
+                    }
+                }
+            } catch (JsonProcessingException ex) {
+                // Items before the bad line are still processed; nothing after it is read
+                malformed = ex.getOriginalMessage();
+            }
+            index = authorizeChunk(index, chunk, output);
+            if (malformed != null) {
+                writeBulkResult(output, new PaymentBulkResult(index, null, "REJECTED", null, "Malformed bulk item: " + malformed));
+                output.flush();
+            }
+            log.info("Payment bulk authorize finished: items={} malformed={}", index, malformed != null);
+        };
     }
 
     @PUT
@@ -87,14 +180,17 @@ public class PaymentResource {
     @Complete
     public Response complete(@HeaderParam(LRA_HTTP_CONTEXT_HEADER) URI lraId) {
         log.info("Payment complete callback: lraId={}", lraId);
+        LraEvents.Callback event = new LraEvents.Callback(lraId, "complete");
+        event.begin();
+        long started = System.nanoTime();
         try {
-            PaymentAuthorization authorization = findByLra(lraId);
-            authorization.setStatus("COMPLETED");
-            repository.save(authorization);
-            log.info("Payment completed successfully: orderId={} lraId={}", authorization.getOrderId(), lraId);
+            int updated = stateStore.transition(LraCoordinatorClient.lraUid(lraId), AuthorizationStatus.COMPLETED);
+            log.info("Payment completed successfully: lraId={} updated={}", lraId, updated);
+            metrics.record(LraMetrics.CALLBACKS, "callback", "complete", LraMetrics.SUCCESS, started, event);
             return Response.ok(ParticipantStatus.Completed.name()).build();
         } catch (Exception e) {
             log.error("Payment complete failed: lraId={}", lraId, e);
+            metrics.record(LraMetrics.CALLBACKS, "callback", "complete", LraMetrics.ERROR, started, event);
             return Response.ok(ParticipantStatus.Completed.name()).build();
         }
     }
@@ -106,14 +202,17 @@ public class PaymentResource {
     @Compensate
     public Response compensate(@HeaderParam(LRA_HTTP_CONTEXT_HEADER) URI lraId) {
         log.info("Payment compensate callback: lraId={}", lraId);
+        LraEvents.Callback event = new LraEvents.Callback(lraId, "compensate");
+        event.begin();
+        long started = System.nanoTime();
         try {
-            PaymentAuthorization authorization = findByLra(lraId);
-            authorization.setStatus("COMPENSATED");
-            repository.save(authorization);
-            log.info("Payment compensated successfully: orderId={} lraId={}", authorization.getOrderId(), lraId);
+            int updated = stateStore.transition(LraCoordinatorClient.lraUid(lraId), AuthorizationStatus.COMPENSATED);
+            log.info("Payment compensated successfully: lraId={} updated={}", lraId, updated);
+            metrics.record(LraMetrics.CALLBACKS, "callback", "compensate", LraMetrics.SUCCESS, started, event);
             return Response.ok(ParticipantStatus.Compensated.name()).build();
         } catch (Exception e) {
             log.error("Payment compensate failed: lraId={}", lraId, e);
+            metrics.record(LraMetrics.CALLBACKS, "callback", "compensate", LraMetrics.ERROR, started, event);
             return Response.ok(ParticipantStatus.Compensated.name()).build();
         }
     }
@@ -122,6 +221,9 @@ public class PaymentResource {
     @Path("/forget")
     @Consumes(MediaType.TEXT_PLAIN)
     public Response forget(@HeaderParam(LRA_HTTP_CONTEXT_HEADER) URI lraId) {
+        if (lraId != null) {
+            stateStore.forget(LraCoordinatorClient.lraUid(lraId));
+        }
         return Response.ok().build();
     }
 
@@ -144,7 +246,7 @@ public class PaymentResource {
     public PaymentResponse status(@PathParam("orderId") String orderId) {
         PaymentAuthorization authorization = repository.findTopByOrderId(orderId)
                 .orElseThrow(() -> new WebApplicationException("Authorization not found", Response.Status.NOT_FOUND));
-        return new PaymentResponse(authorization.getOrderId(), authorization.getStatus(), authorization.getLraId());
+        return new PaymentResponse(authorization.getOrderId(), authorization.getStatus().name(), authorization.getLraId());
     }
 
     @GET
@@ -158,35 +260,133 @@ public class PaymentResource {
             return Response.ok(ParticipantStatus.Active.name()).build();
         }
         log.info("Payment lra-status callback: lraId={}", lraId);
+        LraEvents.Callback event = new LraEvents.Callback(lraId, "status");
+        event.begin();
+        long started = System.nanoTime();
         try {
-            PaymentAuthorization authorization = findByLra(lraId);
-            String status = switch (authorization.getStatus()) {
-                case "COMPLETED" -> ParticipantStatus.Completed.name();
-                case "COMPENSATED" -> ParticipantStatus.Compensated.name();
+            AuthorizationStatus internalStatus = stateStore.isEnabled() ? cachedStatus(lraId) : findByLra(lraId).getStatus();
+            String status = switch (internalStatus) {
+                case COMPLETED -> ParticipantStatus.Completed.name();
+                case COMPENSATED -> ParticipantStatus.Compensated.name();
                 // FAILED means business logic failed, but compensate hasn't been called yet
                 // So we return Active to signal Narayana to call compensate
-                case "FAILED", "TRY" -> ParticipantStatus.Active.name();
-                default -> ParticipantStatus.Active.name();
+                case FAILED, TRY -> ParticipantStatus.Active.name();
             };
-            log.info("Payment lra-status: orderId={} internalStatus={} lraStatus={}",
-                    authorization.getOrderId(), authorization.getStatus(), status);
+            log.info("Payment lra-status: lraId={} internalStatus={} lraStatus={}", lraId, internalStatus, status);
+            metrics.record(LraMetrics.CALLBACKS, "callback", "status", LraMetrics.SUCCESS, started, event);
             return Response.ok(status).build();
         } catch (Exception e) {
             log.error("Payment lra-status failed: lraId={}", lraId, e);
+            metrics.record(LraMetrics.CALLBACKS, "callback", "status", LraMetrics.ERROR, started, event);
             return Response.ok(ParticipantStatus.Active.name()).build();
         }
     }
 
-    private PaymentAuthorization findByLra(URI lraId) {
-        return repository.findTopByLraId(lraId.toString())
-                .orElseThrow(() -> new WebApplicationException("Authorization not found", Response.Status.NOT_FOUND));
+    private int authorizeChunk(int firstIndex, List<PaymentBulkItem> chunk, OutputStream output) throws IOException {
+        if (chunk.isEmpty()) {
+            return firstIndex;
+        }
+        // Enlist the valid items concurrently; identical joins in flight are coalesced by the coordinator client.
+        // Invalid items are never enlisted, so the coordinator has no callbacks for rows that are not saved.
+        String[] errors = new String[chunk.size()];
+        List<Future<?>> joins = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            PaymentBulkItem item = chunk.get(i);
+            errors[i] = bulkItemError(item);
+            joins.add(errors[i] != null ? null : bulkExecutor.submit(() -> enlister.enlist(item.lraId(), participant)));
+        }
+
+        PaymentBulkResult[] results = new PaymentBulkResult[chunk.size()];
+        List<PaymentAuthorization> authorizations = new ArrayList<>(chunk.size());
+        List<Integer> positions = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            PaymentBulkItem item = chunk.get(i);
+            String orderId = item.request() == null ? null : item.request().orderId();
+            String error = errors[i] != null ? errors[i] : joinError(item, joins.get(i));
+            if (error != null) {
+                results[i] = new PaymentBulkResult(firstIndex + i, orderId, "REJECTED",
+                        item.lraId() == null ? null : item.lraId().toString(), error);
+                continue;
+            }
+            PaymentRequest request = item.request();
+            authorizations.add(new PaymentAuthorization(
+                    orderId,
+                    item.lraId().toString(),
+                    LraCoordinatorClient.lraUid(item.lraId()),
+                    request.fail() ? AuthorizationStatus.FAILED : AuthorizationStatus.TRY,
+                    payloadCodec.format(MediaType.APPLICATION_JSON_TYPE),
+                    payloadCodec.encode(request, MediaType.APPLICATION_JSON_TYPE)
+            ));
+            positions.add(i);
+        }
+
+        // One transaction for the chunk instead of one per item
+        String saveError = null;
+        try {
+            repository.saveAll(authorizations);
+            authorizations.forEach(saved -> stateStore.created(saved.getLraUid(), saved.getStatus()));
+        } catch (RuntimeException ex) {
+            log.error("Payment bulk authorize chunk failed: firstIndex={} size={}", firstIndex, authorizations.size(), ex);
+            saveError = "Authorization save failed: " + ex.getMessage();
+        }
+        for (int j = 0; j < positions.size(); j++) {
+            int i = positions.get(j);
+            PaymentAuthorization authorization = authorizations.get(j);
+            results[i] = new PaymentBulkResult(firstIndex + i, authorization.getOrderId(),
+                    saveError == null ? authorization.getStatus().name() : "REJECTED", authorization.getLraId(), saveError);
+        }
+
+        for (PaymentBulkResult result : results) {
+            writeBulkResult(output, result);
+        }
+        output.flush();
+        int next = firstIndex + chunk.size();
+        chunk.clear();
+        return next;
     }
 
-    private String toJson(Object payload) {
+    private static String bulkItemError(PaymentBulkItem item) {
+        if (item.request() == null) {
+            return "Missing request";
+        }
+        if (item.request().orderId() == null || item.request().orderId().isBlank()) {
+            return "Missing orderId";
+        }
+        if (item.lraId() == null) {
+            return "Missing LRA context";
+        }
+        return null;
+    }
+
+    private String joinError(PaymentBulkItem item, Future<?> join) throws InterruptedIOException {
         try {
-            return objectMapper.writeValueAsString(payload);
-        } catch (JsonProcessingException ex) {
-            throw new WebApplicationException("Failed to serialize payload", Response.Status.BAD_REQUEST);
+            join.get();
+            return null;
+        } catch (ExecutionException ex) {
+            log.warn("Payment bulk join failed: lraId={}", item.lraId(), ex.getCause());
+            return "LRA join failed: " + ex.getCause().getMessage();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while enlisting bulk items");
         }
     }
+
+    private void writeBulkResult(OutputStream output, PaymentBulkResult result) throws IOException {
+        output.write(bulkResultWriter.writeValueAsBytes(result));
+        output.write('\n');
+    }
+
+    // Answered from memory; falls back to a single lookup when the uid is not cached
+    private AuthorizationStatus cachedStatus(URI lraId) {
+        AuthorizationStatus status = stateStore.status(LraCoordinatorClient.lraUid(lraId));
+        if (status == null) {
+            throw new WebApplicationException("Authorization not found", Response.Status.NOT_FOUND);
+        }
+        return status;
+    }
+
+    private PaymentAuthorization findByLra(URI lraId) {
+        return repository.findTopByLraUid(LraCoordinatorClient.lraUid(lraId))
+                .orElseThrow(() -> new WebApplicationException("Authorization not found", Response.Status.NOT_FOUND));
+    }
 }